@@ -0,0 +1,120 @@
+package com.inbev.productapi.api.admission;
+
+import com.inbev.productapi.config.tenancy.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Admission control of the product API: overloaded instances answer 503 starting with bulk requests, clients over
+ * their rate limit get 429. Both come with a Retry-After header.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final byte[] TOO_MANY_REQUESTS = "{\"errors\":[\"Too many requests\"]}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OVERLOADED = "{\"errors\":[\"Service overloaded, retry later\"]}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiter limiter;
+    private final RateLimiter addressLimiter;
+    private final LoadShedder shedder;
+    private final AdmissionProperties properties;
+    private final ClientIdentity clients;
+    private final Predicate<HttpServletRequest> warmUpRequest;
+    private final Map<RequestClass, Counter> limited = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Counter> shed = new EnumMap<>(RequestClass.class);
+
+    /**
+     * @param addressLimiter limits each remote address across its clients, null for no such limit
+     * @param warmUpRequest  whether a request is sent by the warm-up of this instance, those are always admitted
+     */
+    public AdmissionFilter(RateLimiter limiter, @Nullable RateLimiter addressLimiter, LoadShedder shedder,
+                           AdmissionProperties properties, ClientIdentity clients,
+                           Predicate<HttpServletRequest> warmUpRequest, MeterRegistry registry) {
+        this.limiter = limiter;
+        this.addressLimiter = addressLimiter;
+        this.shedder = shedder;
+        this.properties = properties;
+        this.clients = clients;
+        this.warmUpRequest = warmUpRequest;
+        for (RequestClass requestClass : RequestClass.values()) {
+            limited.put(requestClass, rejected(registry, "rate-limit", requestClass));
+            shed.put(requestClass, rejected(registry, "overload", requestClass));
+        }
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason, RequestClass requestClass) {
+        return Counter.builder("product.admission.rejected")
+                .tag("reason", reason)
+                .tag("class", requestClass.name().toLowerCase())
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (warmUpRequest.test(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        RequestClass requestClass = RequestClass.of(request, properties.getBulkPageSize());
+        if (properties.getShedding().isEnabled() && shedder.shouldShed(requestClass)) {
+            shed.get(requestClass).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, OVERLOADED);
+            return;
+        }
+        String client = client(request);
+        long wait = limiter.tryAcquire(client, requestClass);
+        if (wait == 0 && addressLimiter != null) {
+            wait = addressLimiter.tryAcquire(request.getRemoteAddr(), requestClass);
+            if (wait > 0) {
+                // the request is rejected, the client keeps the token it took
+                limiter.release(client, requestClass);
+            }
+        }
+        if (wait > 0) {
+            limited.get(requestClass).increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(wait) + 1, TOO_MANY_REQUESTS);
+            return;
+        }
+        long begin = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            shedder.record(System.nanoTime() - begin);
+        }
+    }
+
+    /**
+     * Clients are limited per tenant. The tenant filter only lets the tenants of the deployment through, and the
+     * address limit caps what a client gets across all of them.
+     */
+    private String client(HttpServletRequest request) {
+        return TenantContext.current() + " " + clients.of(request);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, byte[] body)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
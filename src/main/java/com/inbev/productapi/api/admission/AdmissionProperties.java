@@ -0,0 +1,83 @@
+package com.inbev.productapi.api.admission;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties("product.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Header identifying the client, requests without a registered key are limited by remote address.
+     */
+    private String apiKeyHeader = "X-Api-Key";
+
+    /**
+     * API keys of the registered clients, each one limited on its own.
+     */
+    private Set<String> apiKeys = new HashSet<>();
+
+    /**
+     * Bucket slots per request class, a power of two. Clients hashing to the same slot share a bucket.
+     */
+    private int slots = 1 << 16;
+
+    /**
+     * Each remote address is also limited across all its API keys and tenants, to this multiple of the limits of a
+     * client. 0 disables the limit, for instances behind a proxy that hides the client addresses.
+     */
+    private double addressLimitFactor = 4;
+
+    private Limit read = new Limit(200, 400);
+    private Limit write = new Limit(20, 40);
+    private Limit bulk = new Limit(5, 10);
+
+    /**
+     * Product lists with a larger page size count as bulk requests.
+     */
+    private int bulkPageSize = 100;
+
+    private Shedding shedding = new Shedding();
+
+    public Limit limit(RequestClass requestClass) {
+        switch (requestClass) {
+            case WRITE:
+                return write;
+            case BULK:
+                return bulk;
+            default:
+                return read;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private double permitsPerSecond;
+        private int burst;
+    }
+
+    @Data
+    public static class Shedding {
+        private boolean enabled = true;
+
+        /**
+         * Average request latency from which bulk requests are shed.
+         */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+
+        /**
+         * Threads waiting for a database connection from which bulk requests are shed.
+         */
+        private int poolWaitThreshold = 5;
+    }
+}
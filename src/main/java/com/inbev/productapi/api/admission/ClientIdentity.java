@@ -0,0 +1,24 @@
+package com.inbev.productapi.api.admission;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Set;
+
+/**
+ * Identifies the client of a request: its API key when the key is registered, its remote address otherwise. Keys are
+ * chosen by the clients, an unregistered one would let a client get a fresh identity with every request.
+ */
+public class ClientIdentity {
+
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+
+    public ClientIdentity(AdmissionProperties properties) {
+        this.apiKeyHeader = properties.getApiKeyHeader();
+        this.apiKeys = properties.getApiKeys();
+    }
+
+    public String of(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        return apiKey != null && apiKeys.contains(apiKey) ? "key " + apiKey : "address " + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,41 @@
+package com.inbev.productapi.api.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Load of the instance from the average request latency and the threads waiting for a database connection,
+ * relative to their thresholds. Each request class is shed above its own pressure.
+ */
+public class LoadShedder {
+
+    private final long latencyThresholdNanos;
+    private final int poolWaitThreshold;
+    private final IntSupplier poolWaiters;
+    private final AtomicLong averageLatencyNanos = new AtomicLong();
+
+    public LoadShedder(AdmissionProperties.Shedding properties, IntSupplier poolWaiters) {
+        this.latencyThresholdNanos = properties.getLatencyThreshold().toNanos();
+        this.poolWaitThreshold = properties.getPoolWaitThreshold();
+        this.poolWaiters = poolWaiters;
+    }
+
+    /**
+     * Moves the average 1/16th of the way to the sample. Concurrent updates may overwrite each other, which only drops
+     * samples. Shed requests are recorded as 0 so the average also decays while everything is shed.
+     */
+    public void record(long latencyNanos) {
+        long average = averageLatencyNanos.get();
+        averageLatencyNanos.lazySet(average + (latencyNanos - average) / 16);
+    }
+
+    public double pressure() {
+        double latency = (double) averageLatencyNanos.get() / latencyThresholdNanos;
+        double poolWait = (double) poolWaiters.getAsInt() / poolWaitThreshold;
+        return Math.max(latency, poolWait);
+    }
+
+    public boolean shouldShed(RequestClass requestClass) {
+        return pressure() >= requestClass.getSheddingPressure();
+    }
+}
@@ -0,0 +1,85 @@
+package com.inbev.productapi.api.admission;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token buckets per client and request class, kept as the theoretical arrival time of the next request (GCRA) in
+ * striped atomic slots: a request is one CAS, without locks or per client allocation.
+ */
+public class RateLimiter {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final Map<RequestClass, Buckets> buckets = new EnumMap<>(RequestClass.class);
+    private final int mask;
+
+    public RateLimiter(AdmissionProperties properties) {
+        this(properties, 1);
+    }
+
+    /**
+     * @param factor multiple of the configured limits, rate and burst, granted to each client
+     */
+    public RateLimiter(AdmissionProperties properties, double factor) {
+        if (Integer.bitCount(properties.getSlots()) != 1) {
+            throw new IllegalArgumentException("Rate limiter slots must be a power of two");
+        }
+        this.mask = properties.getSlots() - 1;
+        for (RequestClass requestClass : RequestClass.values()) {
+            buckets.put(requestClass, new Buckets(properties.getSlots(), properties.limit(requestClass), factor));
+        }
+    }
+
+    /**
+     * @return 0 when the request is admitted, otherwise the nanoseconds until the client gets a token
+     */
+    public long tryAcquire(String client, RequestClass requestClass) {
+        return tryAcquire(client, requestClass, System.nanoTime());
+    }
+
+    long tryAcquire(String client, RequestClass requestClass, long now) {
+        Buckets bucket = buckets.get(requestClass);
+        int slot = spread(client.hashCode()) & mask;
+        while (true) {
+            long arrival = bucket.arrivals.get(slot);
+            long start = arrival == EMPTY || arrival - now < 0 ? now : arrival;
+            long ahead = start - now;
+            if (ahead > bucket.tolerance) {
+                return ahead - bucket.tolerance;
+            }
+            if (bucket.arrivals.compareAndSet(slot, arrival, start + bucket.interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back the token of a request admitted by {@link #tryAcquire} but rejected afterwards.
+     */
+    public void release(String client, RequestClass requestClass) {
+        Buckets bucket = buckets.get(requestClass);
+        bucket.arrivals.addAndGet(spread(client.hashCode()) & mask, -bucket.interval);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class Buckets {
+        final AtomicLongArray arrivals;
+        final long interval;
+        final long tolerance;
+
+        Buckets(int slots, AdmissionProperties.Limit limit, double factor) {
+            this.arrivals = new AtomicLongArray(slots);
+            for (int i = 0; i < slots; i++) {
+                arrivals.set(i, EMPTY);
+            }
+            this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / (limit.getPermitsPerSecond() * factor));
+            this.tolerance = interval * (Math.max(1, (long) (limit.getBurst() * factor)) - 1);
+        }
+    }
+}
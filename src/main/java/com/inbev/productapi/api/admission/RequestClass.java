@@ -0,0 +1,46 @@
+package com.inbev.productapi.api.admission;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Priority classes of product API requests, each with its own rate limit. Under load, bulk requests are shed first
+ * and storefront reads last.
+ */
+public enum RequestClass {
+
+    READ(2.0),
+    WRITE(1.5),
+    BULK(1.0);
+
+    /**
+     * Load, relative to the configured thresholds, from which requests of the class are shed.
+     */
+    private final double sheddingPressure;
+
+    RequestClass(double sheddingPressure) {
+        this.sheddingPressure = sheddingPressure;
+    }
+
+    public double getSheddingPressure() {
+        return sheddingPressure;
+    }
+
+    public static RequestClass of(HttpServletRequest request, int bulkPageSize) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return WRITE;
+        }
+        if (request.getRequestURI().endsWith("/batch")) {
+            return BULK;
+        }
+        String size = request.getParameter("size");
+        if (size != null) {
+            try {
+                return Integer.parseInt(size) > bulkPageSize ? BULK : READ;
+            } catch (NumberFormatException ex) {
+                return READ;
+            }
+        }
+        return READ;
+    }
+}
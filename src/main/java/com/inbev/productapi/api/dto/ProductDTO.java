@@ -8,6 +8,7 @@ import javax.validation.constraints.Size;
 
 @Getter
 @Setter
+@EqualsAndHashCode
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
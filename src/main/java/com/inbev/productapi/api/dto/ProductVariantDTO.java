@@ -0,0 +1,27 @@
+package com.inbev.productapi.api.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductVariantDTO {
+
+    private Long id;
+
+    @NotEmpty
+    private String sku;
+
+    private String description;
+
+    @Min(1)
+    private int packSize;
+
+    private double price;
+}
@@ -0,0 +1,25 @@
+package com.inbev.productapi.api.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductWithVariantsDTO {
+
+    private Long id;
+
+    private String name;
+
+    private String description;
+
+    private double price;
+
+    private String brand;
+
+    private List<ProductVariantDTO> variants;
+}
@@ -1,22 +1,29 @@
 package com.inbev.productapi.api.excptions;
 
 import com.inbev.productapi.exception.BusinessException;
-import org.springframework.validation.BindingResult;
 
-import java.util.ArrayList;
+import javax.validation.ConstraintViolation;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class ApiErrors {
 
     private List<String> errors;
 
-    public ApiErrors(BindingResult bindingResult) {
-        this.errors = new ArrayList<>();
-        bindingResult.getAllErrors().forEach(error -> this.errors.add(error.getDefaultMessage()) );
+    public ApiErrors(Collection<? extends ConstraintViolation<?>> violations) {
+        this.errors = violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toList());
     }
     public ApiErrors(BusinessException ex) {
-        this.errors = Arrays.asList(ex.getMessage());
+        this(ex.getMessage());
+    }
+    public ApiErrors(String error) {
+        this.errors = Arrays.asList(error);
     }
     public List<String> getErrors(){
         return errors;
@@ -0,0 +1,26 @@
+package com.inbev.productapi.api.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("product.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Idempotency keys remembered, the oldest results are forgotten first.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * How long a result is replayed for its key.
+     */
+    private Duration timeToLive = Duration.ofHours(1);
+
+    /**
+     * How long a duplicate waits for the request it repeats before getting a 409.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,92 @@
+package com.inbev.productapi.api.idempotency;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inbev.productapi.exception.BusinessException;
+import com.inbev.productapi.exception.IdempotencyConflictException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Results of requests sent with an {@code Idempotency-Key}, so a retry gets the original result without running the
+ * request again. Duplicates arriving while the first request runs wait for its result.
+ *
+ * Business errors are replayed like results. Other failures forget the key so the request can be retried. Results are
+ * kept in memory, a retry reaching another instance runs the request again.
+ */
+public class IdempotentRequests {
+
+    private final ConcurrentMap<String, Execution> executions;
+    private final long waitTimeoutNanos;
+
+    public IdempotentRequests(IdempotencyProperties properties) {
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .<String, Execution>build()
+                .asMap();
+        this.waitTimeoutNanos = properties.getWaitTimeout().toNanos();
+    }
+
+    /**
+     * @param key     idempotency key scoped to the client and the endpoint, the action just runs when null
+     * @param request what the key was sent with, a retry with another request is rejected
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object request, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        while (true) {
+            Execution execution = new Execution(request);
+            Execution existing = executions.putIfAbsent(key, execution);
+            if (existing == null) {
+                return run(key, execution, action);
+            }
+            if (!existing.request.equals(request)) {
+                throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+            }
+            try {
+                return (T) existing.result.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof BusinessException) {
+                    throw (BusinessException) ex.getCause();
+                }
+                // the first attempt failed and released the key, this one runs the request
+            } catch (TimeoutException ex) {
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyConflictException("Interrupted while waiting for the request with this Idempotency-Key");
+            }
+        }
+    }
+
+    private <T> T run(String key, Execution execution, Supplier<T> action) {
+        try {
+            T result = action.get();
+            execution.result.complete(result);
+            return result;
+        } catch (BusinessException ex) {
+            execution.result.completeExceptionally(ex);
+            throw ex;
+        } catch (RuntimeException | Error ex) {
+            executions.remove(key, execution);
+            execution.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private static class Execution {
+        final Object request;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Execution(Object request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.inbev.productapi.api.recording;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a sample of the requests reaching the product API, one per line: the tenant header prefixed with {@code @}
+ * when sent, the method, the URI with its query and the JSON body if any, with line breaks replaced by spaces. The
+ * load test replays the file.
+ *
+ * The tenant is the only header recorded, so neither API keys nor idempotency keys are. Requests only get here with
+ * an allowed tenant, which holds no space. Lines are written out every second and on close.
+ */
+@Slf4j
+public class TrafficRecordingFilter extends OncePerRequestFilter implements AutoCloseable {
+
+    private final BufferedWriter writer;
+    private final String tenantHeader;
+    private final double sampleRate;
+    private final int maxBodySize;
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * @param tenantHeader request header naming the tenant, see {@code product.tenancy.header}
+     */
+    public TrafficRecordingFilter(Path file, String tenantHeader, double sampleRate, int maxBodySize) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        this.tenantHeader = tenantHeader;
+        this.sampleRate = sampleRate;
+        this.maxBodySize = maxBodySize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-traffic-recording");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getContentLength() > maxBodySize || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ContentCachingRequestWrapper recorded = new ContentCachingRequestWrapper(request, maxBodySize);
+        try {
+            chain.doFilter(recorded, response);
+        } finally {
+            record(recorded);
+        }
+    }
+
+    private void record(ContentCachingRequestWrapper request) throws IOException {
+        StringBuilder line = new StringBuilder(128);
+        String tenant = request.getHeader(tenantHeader);
+        if (tenant != null) {
+            line.append('@').append(tenant).append(' ');
+        }
+        line.append(request.getMethod())
+                .append(' ')
+                .append(request.getRequestURI());
+        if (request.getQueryString() != null) {
+            line.append('?').append(request.getQueryString());
+        }
+        byte[] body = request.getContentAsByteArray();
+        if (body.length > 0) {
+            line.append(' ').append(new String(body, StandardCharsets.UTF_8).replace('\r', ' ').replace('\n', ' '));
+        }
+        synchronized (writer) {
+            writer.write(line.toString());
+            writer.newLine();
+        }
+    }
+
+    public void flush() {
+        try {
+            synchronized (writer) {
+                writer.flush();
+            }
+        } catch (IOException ex) {
+            log.warn("Could not flush the recorded traffic: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdownNow();
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.inbev.productapi.api.recording;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Paths;
+
+@Data
+@ConfigurationProperties("product.traffic-recording")
+public class TrafficRecordingProperties {
+
+    /**
+     * Appends the product API requests to a file the load test can replay.
+     */
+    private boolean enabled = false;
+
+    private String file = Paths.get(System.getProperty("java.io.tmpdir"), "product-traffic.log").toString();
+
+    /**
+     * Share of the requests recorded, between 0 and 1.
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * Requests with a larger body are not recorded.
+     */
+    private int maxBodySize = 8 * 1024;
+}
@@ -0,0 +1,96 @@
+package com.inbev.productapi.api.resource;
+
+import com.inbev.productapi.api.excptions.ApiErrors;
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.service.consistency.ConsistencyCheck;
+import com.inbev.productapi.service.consistency.ConsistencyCheckProperties;
+import com.inbev.productapi.service.consistency.ProductConsistencyChecker;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+
+/**
+ * Consistency checks of the catalog of the tenant of the request, for callers sending the admin key.
+ */
+@RestController
+@RequestMapping("/api/admin/consistency-checks")
+@Api("Product consistency checks")
+@ConditionalOnProperty(name = "product.consistency.enabled", havingValue = "true")
+public class ConsistencyCheckController {
+
+    static final String ADMIN_KEY = "X-Admin-Key";
+    static final ApiErrors CHECK_NOT_FOUND = new ApiErrors("Consistency check not found");
+    static final ApiErrors FORBIDDEN = new ApiErrors("Admin key required");
+
+    private ProductConsistencyChecker checker;
+    private byte[] adminKey;
+
+    public ConsistencyCheckController(ProductConsistencyChecker checker, ConsistencyCheckProperties properties) {
+        this.checker = checker;
+        this.adminKey = properties.getAdminKey().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping
+    @ApiOperation("check the product cache and snapshot against the product table, repairing them on request")
+    public ResponseEntity<?> start(@RequestParam(defaultValue = "false") boolean repair,
+                                   @RequestHeader(value = ADMIN_KEY, required = false) String key){
+        if (!isAdmin(key)) {
+            return forbidden();
+        }
+        Optional<ConsistencyCheck> check = checker.start(TenantContext.current(), repair);
+        if (!check.isPresent()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiErrors("A consistency check is already running"));
+        }
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().replaceQuery(null)
+                        .path("/{id}").buildAndExpand(check.get().getId()).toUri())
+                .body(check.get());
+    }
+
+    @GetMapping("{id}")
+    @ApiOperation("get the progress or report of a consistency check")
+    public ResponseEntity<?> get(@PathVariable String id,
+                                 @RequestHeader(value = ADMIN_KEY, required = false) String key){
+        if (!isAdmin(key)) {
+            return forbidden();
+        }
+        return checker.get(TenantContext.current(), id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(CHECK_NOT_FOUND));
+    }
+
+    @DeleteMapping("{id}")
+    @ApiOperation("cancel a running consistency check")
+    public ResponseEntity<?> cancel(@PathVariable String id,
+                                    @RequestHeader(value = ADMIN_KEY, required = false) String key){
+        if (!isAdmin(key)) {
+            return forbidden();
+        }
+        return checker.get(TenantContext.current(), id)
+                .<ResponseEntity<?>>map(check -> {
+                    check.cancel();
+                    return ResponseEntity.ok(check);
+                })
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(CHECK_NOT_FOUND));
+    }
+
+    /**
+     * Compared in constant time, the comparison must not tell how much of a guess is right.
+     */
+    private boolean isAdmin(String key) {
+        return key != null && MessageDigest.isEqual(adminKey, key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ResponseEntity<?> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(FORBIDDEN);
+    }
+}
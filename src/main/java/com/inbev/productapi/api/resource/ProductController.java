@@ -1,91 +1,274 @@
 package com.inbev.productapi.api.resource;
 
 import com.inbev.productapi.exception.BusinessException;
+import com.inbev.productapi.exception.IdempotencyConflictException;
+import com.inbev.productapi.exception.ProductNotFoundException;
+import com.inbev.productapi.exception.ReadOnlyCatalogException;
+import com.inbev.productapi.exception.ServiceOverloadedException;
 import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.entity.ProductVariant;
 import com.inbev.productapi.service.ProductService;
+import com.inbev.productapi.service.warmup.ProductAccessStats;
 import com.inbev.productapi.api.dto.ProductDTO;
+import com.inbev.productapi.api.dto.ProductVariantDTO;
+import com.inbev.productapi.api.dto.ProductWithVariantsDTO;
 import com.inbev.productapi.api.excptions.ApiErrors;
+import com.inbev.productapi.api.admission.ClientIdentity;
+import com.inbev.productapi.api.idempotency.IdempotentRequests;
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.api.response.PreSerializedResponse;
+import com.inbev.productapi.api.response.ProductResponseCache;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.validation.BindingResult;
-import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
-import javax.validation.Valid;
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Eager even under spring.main.lazy-initialization, so the data path (pool, Flyway, Hibernate, caches) is
+ * built on startup rather than by the first request.
+ *
+ * Missing products and invalid bodies are answered with direct 404 and 400 responses instead of exceptions, they are
+ * most of what scanners send.
+ */
 @RestController
+@Lazy(false)
 @RequestMapping("/api/product")
 @Api("Product API")
 public class ProductController {
 
+    static final int MAX_BATCH_SIZE = 100;
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final ApiErrors PRODUCT_NOT_FOUND = new ApiErrors(ProductNotFoundException.INSTANCE.getMessage());
+
     private ProductService service;
     private ModelMapper modelMapper;
+    private ProductResponseCache responseCache;
+    private ProductAccessStats accessStats;
+    private IdempotentRequests idempotentRequests;
+    private ClientIdentity clients;
+    private Validator validator;
 
-    public ProductController(ProductService service, ModelMapper mapper) {
+    public ProductController(ProductService service, ModelMapper mapper, ProductResponseCache responseCache,
+                             ProductAccessStats accessStats, IdempotentRequests idempotentRequests,
+                             ClientIdentity clients, Validator validator) {
         this.service = service;
         this.modelMapper = mapper;
+        this.responseCache = responseCache;
+        this.accessStats = accessStats;
+        this.idempotentRequests = idempotentRequests;
+        this.clients = clients;
+        this.validator = validator;
     }
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
     @ApiOperation("Create a product")
-    public ProductDTO create(@RequestBody  @Valid ProductDTO dto){
-        Product entity = modelMapper.map(dto, Product.class);
-        entity = service.save(entity);
-        return modelMapper.map(entity, ProductDTO.class);
+    public ResponseEntity<?> create(@RequestBody ProductDTO dto,
+                                    @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                    HttpServletRequest request){
+        Set<ConstraintViolation<ProductDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return ResponseEntity.badRequest().body(new ApiErrors(violations));
+        }
+        ProductDTO created = idempotentRequests.execute(scoped("POST", idempotencyKey, request), dto, () -> {
+            Product entity = modelMapper.map(dto, Product.class);
+            entity = service.save(entity);
+            return modelMapper.map(entity, ProductDTO.class);
+        });
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
     @GetMapping("{id}")
-    @ResponseStatus(HttpStatus.OK)
     @ApiOperation("get a product details by id")
-    public ProductDTO get (@PathVariable Long id){
-        return service.getById(id)
-                .map( product -> modelMapper.map(product, ProductDTO.class))
-                .orElseThrow( () -> new ResponseStatusException( HttpStatus.NOT_FOUND));
+    public ResponseEntity<?> get (@PathVariable Long id, @RequestHeader HttpHeaders headers){
+        Optional<Product> found = service.getById(id);
+        if (!found.isPresent()) {
+            return notFound();
+        }
+        Product product = found.get();
+        accessStats.record(id);
+        if (!responseCache.servesJson(headers.getAccept())) {
+            return ResponseEntity.ok(modelMapper.map(product, ProductDTO.class));
+        }
+        PreSerializedResponse response = responseCache.json(product, acceptsGzip(headers));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        if (response.isGzipped()) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(response.getBody());
     }
     @GetMapping("/findByName/{name}")
     @ApiOperation("find product details by name")
-    public ProductDTO findByName(@PathVariable String name) {
+    public ResponseEntity<?> findByName(@PathVariable String name) {
         return service.getByName(name)
-                .map( product -> modelMapper.map(product, ProductDTO.class))
-                .orElseThrow( () -> new ResponseStatusException( HttpStatus.NOT_FOUND));
+                .<ResponseEntity<?>>map( product -> ResponseEntity.ok(modelMapper.map(product, ProductDTO.class)))
+                .orElseGet(ProductController::notFound);
+    }
+
+    @GetMapping
+    @ApiOperation("find products by params")
+    public Page<ProductDTO> find(ProductDTO dto, Pageable pageRequest){
+        Product filter = modelMapper.map(dto, Product.class);
+        Page<Product> result = service.find(filter, pageRequest);
+        List<ProductDTO> list = result.getContent()
+                .stream()
+                .map(entity -> modelMapper.map(entity, ProductDTO.class))
+                .collect(Collectors.toList());
+        return new PageImpl<ProductDTO>(list, pageRequest, result.getTotalElements());
+    }
+
+    @GetMapping("/batch")
+    @ApiOperation("get the details of several products by id")
+    public List<ProductDTO> getBatch(@RequestParam List<Long> ids){
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BusinessException("At most " + MAX_BATCH_SIZE + " ids can be requested at once");
+        }
+        return service.getByIds(ids)
+                .stream()
+                .map(product -> modelMapper.map(product, ProductDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @GetMapping("{id}/variants")
+    @ApiOperation("get a product with all its variants")
+    public ResponseEntity<?> getWithVariants(@PathVariable Long id){
+        return service.getWithVariants(id)
+                .<ResponseEntity<?>>map( product -> ResponseEntity.ok(modelMapper.map(product, ProductWithVariantsDTO.class)))
+                .orElseGet(ProductController::notFound);
+    }
+
+    @GetMapping("/variants")
+    @ApiOperation("find products by params, with their variants")
+    public Page<ProductWithVariantsDTO> findWithVariants(ProductDTO dto, Pageable pageRequest){
+        Product filter = modelMapper.map(dto, Product.class);
+        Page<Product> result = service.findWithVariants(filter, pageRequest);
+        List<ProductWithVariantsDTO> list = result.getContent()
+                .stream()
+                .map(entity -> modelMapper.map(entity, ProductWithVariantsDTO.class))
+                .collect(Collectors.toList());
+        return new PageImpl<ProductWithVariantsDTO>(list, pageRequest, result.getTotalElements());
+    }
+
+    @PostMapping("{id}/variants")
+    @ApiOperation("add a variant or bundle to a product")
+    public ResponseEntity<?> addVariant(@PathVariable Long id, @RequestBody ProductVariantDTO dto){
+        Set<ConstraintViolation<ProductVariantDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return ResponseEntity.badRequest().body(new ApiErrors(violations));
+        }
+        Optional<Product> product = service.getById(id);
+        if (!product.isPresent()) {
+            return notFound();
+        }
+        ProductVariant variant = service.addVariant(product.get(), modelMapper.map(dto, ProductVariant.class));
+        return ResponseEntity.status(HttpStatus.CREATED).body(modelMapper.map(variant, ProductVariantDTO.class));
     }
 
     @DeleteMapping("{id}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
     @ApiOperation("delete a product")
-    public void delete(@PathVariable Long id){
-        Product product = service.getById(id)
-                .orElseThrow( () -> new ResponseStatusException( HttpStatus.NOT_FOUND));;
-        service.delete(product);
+    public ResponseEntity<?> delete(@PathVariable Long id){
+        return reloadingOnConflict(() -> {
+            Optional<Product> product = service.getById(id);
+            if (!product.isPresent()) {
+                return notFound();
+            }
+            service.delete(product.get());
+            return ResponseEntity.noContent().build();
+        });
     }
     @PutMapping("{id}")
     @ApiOperation("update a product")
-    public ProductDTO update (@PathVariable Long id, @RequestBody ProductDTO dto ){
-        return service.getById(id).map( product -> {
-            product.setName(dto.getName());
-            product = service.update(product);
-            return modelMapper.map(product, ProductDTO.class);
-        }).orElseThrow( () -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    public ProductDTO update (@PathVariable Long id, @RequestBody ProductDTO dto,
+                              @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                              HttpServletRequest request){
+        return idempotentRequests.execute(scoped("PUT " + id, idempotencyKey, request), Arrays.asList(id, dto), () ->
+                reloadingOnConflict(() -> service.getById(id).map( product -> {
+                    product.setName(dto.getName());
+                    product = service.update(product);
+                    return modelMapper.map(product, ProductDTO.class);
+                }).orElseThrow( () -> ProductNotFoundException.INSTANCE)));
     }
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ApiErrors handleValidationExceptions(MethodArgumentNotValidException ex){
-        BindingResult bindingResult = ex.getBindingResult();
-        return new ApiErrors(bindingResult);
+    /**
+     * The product read for a write may be a stale cached copy, the service evicts it on a version conflict
+     * so the write is retried once on a fresh copy. A second conflict is a concurrent write, reported as such.
+     */
+    private static <T> T reloadingOnConflict(Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            return write.get();
+        }
+    }
+
+    @ExceptionHandler(ProductNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ApiErrors handlerNotFound( ProductNotFoundException ex){
+        return PRODUCT_NOT_FOUND;
     }
     @ExceptionHandler(BusinessException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiErrors handlerBusinessException( BusinessException ex){
         return new ApiErrors(ex);
     }
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors handlerConcurrentUpdate( ObjectOptimisticLockingFailureException ex){
+        return new ApiErrors("Product was changed concurrently, reload it and retry");
+    }
+    @ExceptionHandler(ServiceOverloadedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiErrors handlerOverload( ServiceOverloadedException ex){
+        return new ApiErrors(ex.getMessage());
+    }
+
+    @ExceptionHandler(ReadOnlyCatalogException.class)
+    @ResponseStatus(HttpStatus.METHOD_NOT_ALLOWED)
+    public ApiErrors handlerReadOnly( ReadOnlyCatalogException ex){
+        return new ApiErrors(ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors handlerIdempotencyConflict( IdempotencyConflictException ex){
+        return new ApiErrors(ex.getMessage());
+    }
+
+    private static ResponseEntity<?> notFound() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(PRODUCT_NOT_FOUND);
+    }
+
+    /**
+     * Idempotency keys are chosen by the clients, scoped to the tenant, the client as identified by admission control
+     * and the endpoint so that clients never replay each other's responses.
+     */
+    private String scoped(String endpoint, String idempotencyKey, HttpServletRequest request) {
+        return idempotencyKey == null ? null
+                : TenantContext.current() + " " + clients.of(request) + " " + endpoint + " " + idempotencyKey;
+    }
+
+    private static boolean acceptsGzip(HttpHeaders headers) {
+        String acceptEncoding = headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
 
 }
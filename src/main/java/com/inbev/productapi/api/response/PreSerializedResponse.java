@@ -0,0 +1,9 @@
+package com.inbev.productapi.api.response;
+
+import lombok.Value;
+
+@Value
+public class PreSerializedResponse {
+    byte[] body;
+    boolean gzipped;
+}
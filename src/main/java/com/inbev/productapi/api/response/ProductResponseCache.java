@@ -0,0 +1,114 @@
+package com.inbev.productapi.api.response;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inbev.productapi.api.dto.ProductDTO;
+import com.inbev.productapi.model.entity.Product;
+import org.modelmapper.ModelMapper;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON bodies of single product responses, serialized once per product version instead of once per request.
+ *
+ * Products without a version (not loaded from the database) are serialized on every call.
+ */
+public class ProductResponseCache {
+
+    private final Cache<Long, Entry> entries;
+    private final ObjectMapper objectMapper;
+    private final ModelMapper modelMapper;
+    private final int gzipMinSize;
+    private final boolean enabled;
+
+    public ProductResponseCache(ObjectMapper objectMapper, ModelMapper modelMapper, ResponseCacheProperties properties) {
+        this.entries = Caffeine.newBuilder().maximumSize(properties.getMaximumSize()).build();
+        this.objectMapper = objectMapper;
+        this.modelMapper = modelMapper;
+        this.gzipMinSize = properties.getGzipMinSize();
+        this.enabled = properties.isEnabled();
+    }
+
+    /**
+     * @return whether JSON is the best match of the Accept header, other formats go through content negotiation
+     */
+    public boolean servesJson(List<MediaType> accepted) {
+        if (!enabled || accepted.isEmpty()) {
+            return enabled;
+        }
+        List<MediaType> sorted = new ArrayList<>(accepted);
+        MediaType.sortBySpecificityAndQuality(sorted);
+        for (MediaType mediaType : sorted) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)
+                    || mediaType.isCompatibleWith(MediaType.valueOf("application/x-jackson-smile"))) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    public PreSerializedResponse json(Product product, boolean acceptsGzip) {
+        if (product.getId() == null || product.getVersion() == null) {
+            return new PreSerializedResponse(serialize(product), false);
+        }
+        Entry entry = entries.getIfPresent(product.getId());
+        if (entry == null || !entry.version.equals(product.getVersion())) {
+            entry = new Entry(product.getVersion(), serialize(product));
+            entries.put(product.getId(), entry);
+        }
+        if (acceptsGzip && entry.json.length >= gzipMinSize) {
+            return new PreSerializedResponse(entry.gzipped(), true);
+        }
+        return new PreSerializedResponse(entry.json, false);
+    }
+
+    private byte[] serialize(Product product) {
+        try {
+            return objectMapper.writeValueAsBytes(modelMapper.map(product, ProductDTO.class));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize product " + product.getId(), ex);
+        }
+    }
+
+    private static class Entry {
+        final Long version;
+        final byte[] json;
+        // computed on first use, a race only compresses twice
+        volatile byte[] gzip;
+
+        Entry(Long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+
+        byte[] gzipped() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                compressed = compress(json);
+                gzip = compressed;
+            }
+            return compressed;
+        }
+
+        private static byte[] compress(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(bytes);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.inbev.productapi.api.response;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("product.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 10_000;
+
+    /**
+     * Smaller responses are never gzipped, compressing them costs more than it saves.
+     */
+    private int gzipMinSize = 1024;
+}
@@ -0,0 +1,58 @@
+package com.inbev.productapi.api.tenancy;
+
+import com.inbev.productapi.config.tenancy.TenancyProperties;
+import com.inbev.productapi.config.tenancy.TenantContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Resolves the tenant of each product API request from its header and runs the request for it, see
+ * {@link TenantContext}. Requests for a tenant this deployment does not serve are answered 400, the header is chosen
+ * by the client.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    private final TenancyProperties properties;
+
+    public TenantFilter(TenancyProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String tenant = request.getHeader(properties.getHeader());
+        if (!StringUtils.hasText(tenant)) {
+            tenant = properties.getDefaultTenant();
+        }
+        if (!StringUtils.hasText(tenant)) {
+            reject(response, "Missing " + properties.getHeader() + " header");
+            return;
+        }
+        if (!properties.getTenants().contains(tenant)) {
+            reject(response, "Unknown tenant");
+            return;
+        }
+        TenantContext.set(tenant);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private static void reject(HttpServletResponse response, String error) throws IOException {
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(("{\"errors\":[\"" + error + "\"]}").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,46 @@
+package com.inbev.productapi.api.tracing;
+
+import com.inbev.productapi.service.tracing.Span;
+import com.inbev.productapi.service.tracing.Tracer;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Span around the controller handler, from the call to the body written. Its own time, without the service spans,
+ * is spent mapping and serializing.
+ */
+public class HandlerTracingInterceptor implements HandlerInterceptor {
+
+    private static final String SPAN = HandlerTracingInterceptor.class.getName() + ".span";
+
+    private final Tracer tracer;
+
+    public HandlerTracingInterceptor(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && tracer.current() != null) {
+            HandlerMethod method = (HandlerMethod) handler;
+            request.setAttribute(SPAN, tracer.startSpan(
+                    method.getBeanType().getSimpleName() + "." + method.getMethod().getName(), Span.Kind.INTERNAL));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object span = request.getAttribute(SPAN);
+        if (span instanceof Span) {
+            if (ex != null) {
+                ((Span) span).setError(ex);
+            }
+            ((Span) span).close();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.inbev.productapi.api.tracing;
+
+import com.inbev.productapi.service.tracing.Span;
+import com.inbev.productapi.service.tracing.Tracer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Server span of each request, continuing the W3C trace context of the traceparent and tracestate headers. Recorded
+ * requests answer with a traceresponse header carrying their trace id.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    static final String TRACEPARENT = "traceparent";
+    static final String TRACESTATE = "tracestate";
+    static final String TRACERESPONSE = "traceresponse";
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Span span = tracer.startServerSpan(request.getMethod(), request.getHeader(TRACEPARENT),
+                request.getHeader(TRACESTATE));
+        if (!span.isRecording()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (Span server = span) {
+            server.setAttribute("http.method", request.getMethod())
+                    .setAttribute("http.target", request.getRequestURI());
+            response.setHeader(TRACERESPONSE, server.getContext().toTraceparent());
+            try {
+                chain.doFilter(request, response);
+            } catch (IOException | ServletException | RuntimeException ex) {
+                server.setError(ex);
+                throw ex;
+            }
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (route != null) {
+                server.setName(request.getMethod() + " " + route).setAttribute("http.route", route);
+            }
+            server.setAttribute("http.status_code", response.getStatus());
+            if (response.getStatus() >= 500) {
+                server.setError(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.inbev.productapi.config;
+
+import com.inbev.productapi.api.admission.AdmissionFilter;
+import com.inbev.productapi.api.admission.AdmissionProperties;
+import com.inbev.productapi.api.admission.ClientIdentity;
+import com.inbev.productapi.api.admission.LoadShedder;
+import com.inbev.productapi.api.admission.RateLimiter;
+import com.inbev.productapi.config.datasource.ReadWritePools;
+import com.inbev.productapi.config.sharding.ProductShards;
+import com.inbev.productapi.service.warmup.ProductWarmUp;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Rate limiting and load shedding in front of the product API, see {@link AdmissionFilter}.
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+@ConditionalOnProperty(name = "product.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(AdmissionProperties properties) {
+        return new RateLimiter(properties);
+    }
+
+    @Bean
+    public LoadShedder loadShedder(AdmissionProperties properties, ObjectProvider<HikariDataSource> dataSource,
+                                   ObjectProvider<ReadWritePools> readWritePools, ObjectProvider<ProductShards> shards) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        dataSource.ifAvailable(pools::add);
+        readWritePools.ifAvailable(both -> {
+            pools.add(both.getPrimary());
+            pools.add(both.getReplica());
+        });
+        shards.ifAvailable(all -> {
+            for (int shard = 0; shard < all.count(); shard++) {
+                pools.add(all.get(shard));
+            }
+        });
+        return new LoadShedder(properties.getShedding(), waitingThreads(pools));
+    }
+
+    private static IntSupplier waitingThreads(List<HikariDataSource> pools) {
+        HikariDataSource[] all = pools.toArray(new HikariDataSource[0]);
+        return () -> {
+            int waiting = 0;
+            for (HikariDataSource pool : all) {
+                HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+                if (bean != null) {
+                    waiting += bean.getThreadsAwaitingConnection();
+                }
+            }
+            return waiting;
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(RateLimiter limiter, LoadShedder shedder,
+                                                                   AdmissionProperties properties,
+                                                                   ClientIdentity clients,
+                                                                   ObjectProvider<ProductWarmUp> warmUp,
+                                                                   MeterRegistry registry) {
+        ProductWarmUp productWarmUp = warmUp.getIfAvailable();
+        // each remote address is limited across its API keys and tenants
+        RateLimiter addressLimiter = properties.getAddressLimitFactor() > 0
+                ? new RateLimiter(properties, properties.getAddressLimitFactor())
+                : null;
+        AdmissionFilter filter = new AdmissionFilter(limiter, addressLimiter, shedder, properties, clients,
+                request -> productWarmUp != null
+                        && productWarmUp.isWarmUpRequest(request.getHeader(ProductWarmUp.MARKER_HEADER)),
+                registry);
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
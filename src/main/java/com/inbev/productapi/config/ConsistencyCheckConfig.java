@@ -0,0 +1,51 @@
+package com.inbev.productapi.config;
+
+import com.inbev.productapi.config.sharding.ProductShards;
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.service.cache.ProductCache;
+import com.inbev.productapi.service.consistency.CachedProductView;
+import com.inbev.productapi.service.consistency.ConsistencyCheckProperties;
+import com.inbev.productapi.service.consistency.DerivedProductView;
+import com.inbev.productapi.service.consistency.ProductConsistencyChecker;
+import com.inbev.productapi.service.consistency.SnapshotProductView;
+import com.inbev.productapi.service.snapshot.SnapshotProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consistency checker of the product cache, and of the snapshot when serving from one, against the product table.
+ * Its endpoints scan the whole catalog of a tenant and repair derived data, they are only served with an admin key.
+ */
+@Configuration
+@EnableConfigurationProperties(ConsistencyCheckProperties.class)
+@ConditionalOnProperty(name = "product.consistency.enabled", havingValue = "true")
+public class ConsistencyCheckConfig {
+
+    public ConsistencyCheckConfig(ConsistencyCheckProperties properties) {
+        if (!StringUtils.hasText(properties.getAdminKey())) {
+            throw new IllegalStateException("product.consistency.admin-key is required with product.consistency");
+        }
+    }
+
+    @Bean
+    public ProductConsistencyChecker productConsistencyChecker(ProductRepository repository, ProductCache cache,
+                                                               ObjectProvider<SnapshotProductService> snapshot,
+                                                               ObjectProvider<ProductShards> shards,
+                                                               ConsistencyCheckProperties properties,
+                                                               MeterRegistry registry) {
+        List<DerivedProductView> views = new ArrayList<>();
+        views.add(new CachedProductView(cache));
+        snapshot.ifAvailable(service -> views.add(new SnapshotProductView(service)));
+        ProductShards productShards = shards.getIfAvailable();
+        return new ProductConsistencyChecker(repository, views, properties,
+                productShards == null ? 0 : productShards.count(), registry);
+    }
+}
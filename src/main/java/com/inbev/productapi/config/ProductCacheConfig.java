@@ -0,0 +1,55 @@
+package com.inbev.productapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.service.cache.CacheInvalidationBus;
+import com.inbev.productapi.service.cache.InMemorySharedCacheTier;
+import com.inbev.productapi.service.cache.InProcessInvalidationBus;
+import com.inbev.productapi.service.cache.ProductCache;
+import com.inbev.productapi.service.cache.ProductCacheProperties;
+import com.inbev.productapi.service.cache.SharedCacheTier;
+import com.inbev.productapi.service.cache.TwoTierProductCache;
+import com.inbev.productapi.service.coalescing.CoalescingProperties;
+import com.inbev.productapi.service.coalescing.ProductLoader;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Product cache and the loader filling it on misses.
+ *
+ * The shared tier and the invalidation bus default to embedded implementations: define a {@link SharedCacheTier}
+ * and a {@link CacheInvalidationBus} bean to share them between instances.
+ */
+@Configuration
+@EnableConfigurationProperties({ProductCacheProperties.class, CoalescingProperties.class})
+public class ProductCacheConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SharedCacheTier sharedCacheTier(ProductCacheProperties properties) {
+        return new InMemorySharedCacheTier(properties.getSharedMaximumSize(), properties.getSharedTimeToLive());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheInvalidationBus cacheInvalidationBus() {
+        return new InProcessInvalidationBus();
+    }
+
+    @Bean
+    public ProductLoader productLoader(ProductRepository repository, CoalescingProperties properties) {
+        return new ProductLoader(repository, properties);
+    }
+
+    @Bean
+    public ProductCache productCache(SharedCacheTier sharedCacheTier, CacheInvalidationBus bus,
+                                     ObjectMapper objectMapper, ProductCacheProperties properties) {
+        if (!properties.isEnabled()) {
+            return ProductCache.none();
+        }
+        return new TwoTierProductCache(sharedCacheTier, bus, objectMapper,
+                properties.getNearMaximumSize(), properties.getNearMaximumTenants(), properties.getNearTimeToLive());
+    }
+}
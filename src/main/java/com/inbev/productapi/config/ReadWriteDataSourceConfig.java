@@ -0,0 +1,81 @@
+package com.inbev.productapi.config;
+
+import com.inbev.productapi.config.datasource.ReadWritePools;
+import com.inbev.productapi.config.datasource.ReadWriteRoutingDataSource;
+import com.inbev.productapi.config.datasource.ReadWriteRoutingProperties;
+import com.inbev.productapi.config.datasource.ReplicaLagGuard;
+import com.inbev.productapi.config.datasource.ReplicaLagProbe;
+import com.zaxxer.hikari.HikariConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits the traffic between a primary and a read replica, enabled with {@code product.datasource.routing.enabled}.
+ *
+ * Both pools are configured under {@code product.datasource.primary.*} and {@code product.datasource.replica.*}
+ * using the Hikari property names ({@code jdbc-url}, {@code username}, {@code maximum-pool-size}, ...).
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadWriteRoutingProperties.class)
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("product.datasource.primary")
+    public HikariConfig primaryPoolConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("product-primary");
+        return config;
+    }
+
+    @Bean
+    @ConfigurationProperties("product.datasource.replica")
+    public HikariConfig replicaPoolConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("product-replica");
+        config.setReadOnly(true);
+        return config;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReadWritePools readWritePools(@Qualifier("primaryPoolConfig") HikariConfig primaryConfig,
+                                         @Qualifier("replicaPoolConfig") HikariConfig replicaConfig) {
+        return new ReadWritePools(primaryConfig, replicaConfig);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReplicaLagProbe replicaLagProbe(ReadWritePools pools, ReadWriteRoutingProperties properties) {
+        if (!StringUtils.hasText(properties.getLagQuery())) {
+            return ReplicaLagProbe.none();
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(pools.getReplica());
+        return () -> jdbcTemplate.queryForObject(properties.getLagQuery(), Long.class);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagGuard replicaLagGuard(ReplicaLagProbe probe, ReadWriteRoutingProperties properties) {
+        ReplicaLagGuard guard = new ReplicaLagGuard(probe,
+                properties.getMaxReplicaLag(), properties.getReadYourWritesWindow());
+        guard.start(properties.getLagCheckInterval());
+        return guard;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWritePools pools, ReplicaLagGuard lagGuard) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(pools.getPrimary(), pools.getReplica(), lagGuard));
+    }
+}
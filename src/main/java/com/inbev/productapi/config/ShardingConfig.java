@@ -0,0 +1,72 @@
+package com.inbev.productapi.config;
+
+import com.inbev.productapi.config.sharding.ProductShards;
+import com.inbev.productapi.config.sharding.ShardDirectory;
+import com.inbev.productapi.config.sharding.ShardRoutingDataSource;
+import com.inbev.productapi.config.sharding.ShardingProperties;
+import com.inbev.productapi.service.ProductService;
+import com.inbev.productapi.service.impl.ShardedProductService;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Spreads the product table over several databases, enabled with {@code product.sharding.enabled}.
+ *
+ * Shards are configured as a list under {@code product.sharding.shards[n].*} using the Hikari property names.
+ * Sharding can't be combined with the read/write routing of {@link ReadWriteDataSourceConfig}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ProductShards productShards(ShardingProperties properties, Environment environment) {
+        if (environment.getProperty("product.datasource.routing.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("product.sharding and product.datasource.routing can't be enabled together");
+        }
+        return new ProductShards(properties.getShards(), properties.getIdRangeSize());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ProductShards shards) {
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shards));
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ProductShards shards) {
+        return flyway -> {
+            for (int shard = 0; shard < shards.count(); shard++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shards.get(shard))
+                        .load()
+                        .migrate();
+                shards.initializeIdRange(shard);
+            }
+        };
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(ShardingProperties properties) {
+        return new ShardDirectory(properties.getDirectorySize());
+    }
+
+    @Bean
+    @Primary
+    public ProductService shardedProductService(@Qualifier("productServiceImp") ProductService delegate,
+                                                ProductShards shards, ShardDirectory directory) {
+        return new ShardedProductService(delegate, shards, directory);
+    }
+}
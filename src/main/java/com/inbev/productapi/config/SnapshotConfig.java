@@ -0,0 +1,41 @@
+package com.inbev.productapi.config;
+
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.service.ProductService;
+import com.inbev.productapi.service.snapshot.ProductSnapshotWriter;
+import com.inbev.productapi.service.snapshot.SnapshotProductService;
+import com.inbev.productapi.service.snapshot.SnapshotProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+/**
+ * Read replica mode, enabled with {@code product.snapshot.enabled}: lookups by id and name are served from a
+ * memory-mapped snapshot of the catalog and writes are rejected, see {@link SnapshotProductService}.
+ */
+@Configuration
+@EnableConfigurationProperties(SnapshotProperties.class)
+@ConditionalOnProperty(name = "product.snapshot.enabled", havingValue = "true")
+public class SnapshotConfig {
+
+    public SnapshotConfig(Environment environment) {
+        if (environment.getProperty("product.sharding.enabled", Boolean.class, false)) {
+            // the snapshot writer reads the repository without a shard context, it would only see the first shard
+            throw new IllegalStateException("product.snapshot and product.sharding can't be enabled together");
+        }
+    }
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public SnapshotProductService snapshotProductService(@Qualifier("productServiceImp") ProductService delegate,
+                                                         ProductRepository repository, SnapshotProperties properties,
+                                                         MeterRegistry registry) {
+        return new SnapshotProductService(delegate, new ProductSnapshotWriter(repository, properties.getChunkSize()),
+                properties, registry);
+    }
+}
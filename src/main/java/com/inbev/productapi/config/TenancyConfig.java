@@ -0,0 +1,46 @@
+package com.inbev.productapi.config;
+
+import com.inbev.productapi.api.tenancy.TenantFilter;
+import com.inbev.productapi.config.tenancy.TenancyProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+
+import java.util.regex.Pattern;
+
+/**
+ * One deployment serves the catalogs of several tenants, see {@link TenantFilter}. The tenant is resolved right
+ * after the trace starts so that admission control already limits each tenant on its own.
+ */
+@Configuration
+@EnableConfigurationProperties(TenancyProperties.class)
+public class TenancyConfig {
+
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    public TenancyConfig(TenancyProperties properties) {
+        if (properties.getTenants().isEmpty()) {
+            throw new IllegalStateException("product.tenancy.tenants must list the tenants served by this deployment");
+        }
+        for (String tenant : properties.getTenants()) {
+            if (!TENANT_ID.matcher(tenant).matches()) {
+                throw new IllegalStateException("Invalid tenant id " + tenant + ", expected " + TENANT_ID);
+            }
+        }
+        if (StringUtils.hasText(properties.getDefaultTenant())
+                && !properties.getTenants().contains(properties.getDefaultTenant())) {
+            throw new IllegalStateException("product.tenancy.default-tenant must be one of product.tenancy.tenants");
+        }
+    }
+
+    @Bean
+    public FilterRegistrationBean<TenantFilter> tenantRegistration(TenancyProperties properties) {
+        FilterRegistrationBean<TenantFilter> registration = new FilterRegistrationBean<>(new TenantFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
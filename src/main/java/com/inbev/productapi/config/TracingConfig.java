@@ -0,0 +1,109 @@
+package com.inbev.productapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbev.productapi.api.tracing.HandlerTracingInterceptor;
+import com.inbev.productapi.api.tracing.TracingFilter;
+import com.inbev.productapi.service.ProductService;
+import com.inbev.productapi.service.tracing.FileSpanExporter;
+import com.inbev.productapi.service.tracing.InMemorySpanExporter;
+import com.inbev.productapi.service.tracing.JdbcTracingInterceptor;
+import com.inbev.productapi.service.tracing.ServiceTracingInterceptor;
+import com.inbev.productapi.service.tracing.SpanExporter;
+import com.inbev.productapi.service.tracing.Tracer;
+import com.inbev.productapi.service.tracing.TracingBeanPostProcessor;
+import com.inbev.productapi.service.tracing.TracingProperties;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.function.SingletonSupplier;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.nio.file.Paths;
+
+/**
+ * Request tracing, enabled with {@code product.tracing.enabled}: a server span per request of the product API with
+ * spans of the controller handler, of the {@link ProductService} methods and of the JDBC statements of the primary
+ * data source below it.
+ *
+ * The advice is added by bean post processors, which only resolve the tracer on first use so the exporter and its
+ * dependencies are still post processed.
+ */
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty(name = "product.tracing.enabled", havingValue = "true")
+public class TracingConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Tracer> tracer;
+
+    public TracingConfig(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public SpanExporter spanExporter(TracingProperties properties, ObjectMapper objectMapper) {
+        if (properties.getFile() != null) {
+            return new FileSpanExporter(Paths.get(properties.getFile()), objectMapper);
+        }
+        return new InMemorySpanExporter(properties.getMaxSpansInMemory());
+    }
+
+    @Bean
+    public Tracer tracer(SpanExporter exporter, TracingProperties properties) {
+        return new Tracer(exporter, properties.getSampleRatio());
+    }
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(Tracer tracer) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(tracer));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerTracingInterceptor(tracer.getObject())).addPathPatterns("/api/**");
+    }
+
+    @Bean
+    public static TracingBeanPostProcessor serviceTracing(ObjectProvider<Tracer> tracer) {
+        StaticMethodMatcherPointcut productServiceMethods = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return ProductService.class.isAssignableFrom(targetClass)
+                        && ReflectionUtils.findMethod(ProductService.class, method.getName(),
+                        method.getParameterTypes()) != null;
+            }
+        };
+        productServiceMethods.setClassFilter(ProductService.class::isAssignableFrom);
+        return new TracingBeanPostProcessor(new DefaultPointcutAdvisor(productServiceMethods,
+                new ServiceTracingInterceptor(SingletonSupplier.of(tracer::getObject))), null);
+    }
+
+    @Bean
+    public static TracingBeanPostProcessor jdbcTracing(ObjectProvider<Tracer> tracer, Environment environment) {
+        int maxStatementLength = Binder.get(environment)
+                .bind("product.tracing.max-statement-length", Integer.class)
+                .orElse(new TracingProperties().getMaxStatementLength());
+        NameMatchMethodPointcutAdvisor getConnection = new NameMatchMethodPointcutAdvisor(
+                new JdbcTracingInterceptor(SingletonSupplier.of(tracer::getObject), maxStatementLength));
+        getConnection.setMappedName("getConnection");
+        getConnection.setClassFilter(DataSource.class::isAssignableFrom);
+        return new TracingBeanPostProcessor(getConnection, "dataSource");
+    }
+}
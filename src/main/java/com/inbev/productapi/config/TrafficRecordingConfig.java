@@ -0,0 +1,38 @@
+package com.inbev.productapi.config;
+
+import com.inbev.productapi.api.recording.TrafficRecordingFilter;
+import com.inbev.productapi.api.recording.TrafficRecordingProperties;
+import com.inbev.productapi.config.tenancy.TenancyProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.nio.file.Paths;
+
+/**
+ * Recording of the product API traffic for the load test, see {@link TrafficRecordingFilter}. Requests are recorded
+ * before admission control, as the clients sent them, and after the tenant filter rejected the unknown tenants.
+ */
+@Configuration
+@EnableConfigurationProperties(TrafficRecordingProperties.class)
+@ConditionalOnProperty(name = "product.traffic-recording.enabled", havingValue = "true")
+public class TrafficRecordingConfig {
+
+    @Bean(destroyMethod = "close")
+    public TrafficRecordingFilter trafficRecordingFilter(TrafficRecordingProperties properties,
+                                                         TenancyProperties tenancy) {
+        return new TrafficRecordingFilter(Paths.get(properties.getFile()), tenancy.getHeader(),
+                properties.getSampleRate(), properties.getMaxBodySize());
+    }
+
+    @Bean
+    public FilterRegistrationBean<TrafficRecordingFilter> trafficRecordingRegistration(TrafficRecordingFilter filter) {
+        FilterRegistrationBean<TrafficRecordingFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/product/*", "/api/product");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,46 @@
+package com.inbev.productapi.config;
+
+import com.inbev.productapi.service.ProductService;
+import com.inbev.productapi.service.warmup.ProductAccessStats;
+import com.inbev.productapi.service.warmup.ProductWarmUp;
+import com.inbev.productapi.service.warmup.WarmUpProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Warms the instance up once the application is ready. The warmUp health indicator, part of the readiness group,
+ * stays OUT_OF_SERVICE until it is done.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpConfig {
+
+    @Bean
+    public ProductWarmUp productWarmUp(ProductService service, ProductAccessStats stats, WarmUpProperties properties,
+                                       MeterRegistry registry) {
+        return new ProductWarmUp(service, stats, properties, registry);
+    }
+
+    @Bean
+    public HealthIndicator warmUpHealthIndicator(ProductWarmUp warmUp) {
+        return () -> warmUp.isComplete() ? Health.up().build() : Health.outOfService().build();
+    }
+
+    @EventListener
+    public void warmUp(ApplicationReadyEvent event) {
+        ProductWarmUp warmUp = event.getApplicationContext().getBean(ProductWarmUp.class);
+        int port = event.getApplicationContext() instanceof WebServerApplicationContext
+                ? ((WebServerApplicationContext) event.getApplicationContext()).getWebServer().getPort()
+                : -1;
+        Thread thread = new Thread(() -> warmUp.run(port), "product-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,78 @@
+package com.inbev.productapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.inbev.productapi.api.admission.AdmissionProperties;
+import com.inbev.productapi.api.admission.ClientIdentity;
+import com.inbev.productapi.api.idempotency.IdempotencyProperties;
+import com.inbev.productapi.api.idempotency.IdempotentRequests;
+import com.inbev.productapi.api.response.ProductResponseCache;
+import com.inbev.productapi.api.response.ResponseCacheProperties;
+import com.inbev.productapi.service.warmup.ProductAccessStats;
+import com.inbev.productapi.service.warmup.WarmUpProperties;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Caches serialized product responses and the results of idempotent requests, counts product requests for the warm-up
+ * of the next instance and adds compact binary encodings for service to service calls, picked with {@code Accept: application/cbor}
+ * or {@code Accept: application/x-jackson-smile}.
+ *
+ * The converters are appended after the JSON one so JSON stays the default when the client accepts anything.
+ */
+@Configuration
+@EnableConfigurationProperties({ResponseCacheProperties.class, WarmUpProperties.class, IdempotencyProperties.class,
+        AdmissionProperties.class})
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders;
+
+    public WebConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders) {
+        this.objectMapperBuilders = objectMapperBuilders;
+    }
+
+    @Bean
+    public ProductResponseCache productResponseCache(ObjectMapper objectMapper, ModelMapper modelMapper,
+                                                     ResponseCacheProperties properties) {
+        return new ProductResponseCache(objectMapper, modelMapper, properties);
+    }
+
+    @Bean
+    public ProductAccessStats productAccessStats(WarmUpProperties properties) {
+        return new ProductAccessStats(properties.getMaxTrackedProducts(), properties.getTopN(),
+                properties.getStatsFile() == null ? null : Paths.get(properties.getStatsFile()));
+    }
+
+    @Bean
+    public IdempotentRequests idempotentRequests(IdempotencyProperties properties) {
+        return new IdempotentRequests(properties);
+    }
+
+    /**
+     * Also used when admission control is disabled, idempotency keys are scoped to the client.
+     */
+    @Bean
+    public ClientIdentity clientIdentity(AdmissionProperties properties) {
+        return new ClientIdentity(properties);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilders.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilders.getObject().factory(new SmileFactory()).build()));
+    }
+}
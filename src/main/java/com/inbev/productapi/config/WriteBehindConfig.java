@@ -0,0 +1,43 @@
+package com.inbev.productapi.config;
+
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.service.cache.ProductCache;
+import com.inbev.productapi.service.writebehind.ProductBatchWriter;
+import com.inbev.productapi.service.writebehind.WriteBehindProperties;
+import com.inbev.productapi.service.writebehind.WriteBehindQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Write-behind mode of product updates, see {@link WriteBehindQueue}. The queue is closed, and so flushed, before the
+ * repository and the transaction manager it writes with.
+ */
+@Configuration
+@EnableConfigurationProperties(WriteBehindProperties.class)
+@ConditionalOnProperty(name = "product.write-behind.enabled", havingValue = "true")
+public class WriteBehindConfig {
+
+    public WriteBehindConfig(Environment environment) {
+        if (environment.getProperty("product.sharding.enabled", Boolean.class, false)) {
+            // the flush thread has no shard context, it would write every update to the first shard
+            throw new IllegalStateException("product.write-behind and product.sharding can't be enabled together");
+        }
+    }
+
+    @Bean
+    public ProductBatchWriter productBatchWriter(ProductRepository repository, ProductCache cache,
+                                                 PlatformTransactionManager transactionManager) {
+        return new ProductBatchWriter(repository, cache, transactionManager);
+    }
+
+    @Bean(destroyMethod = "close")
+    public WriteBehindQueue writeBehindQueue(ProductBatchWriter writer, WriteBehindProperties properties,
+                                             MeterRegistry registry) {
+        return new WriteBehindQueue(writer, properties, registry);
+    }
+}
@@ -0,0 +1,35 @@
+package com.inbev.productapi.config.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Owns the primary and replica pools.
+ *
+ * The pools are deliberately not exposed as {@link javax.sql.DataSource} beans, Spring Boot expects a single
+ * data source bean and would try to initialize each of them.
+ */
+public class ReadWritePools implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+
+    public ReadWritePools(HikariConfig primaryConfig, HikariConfig replicaConfig) {
+        this.primary = new HikariDataSource(primaryConfig);
+        this.replica = new HikariDataSource(replicaConfig);
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public HikariDataSource getReplica() {
+        return replica;
+    }
+
+    @Override
+    public void close() {
+        primary.close();
+        replica.close();
+    }
+}
@@ -0,0 +1,30 @@
+package com.inbev.productapi.config.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("product.datasource.routing")
+public class ReadWriteRoutingProperties {
+
+    private boolean enabled;
+
+    /**
+     * Reads go to the primary while the replica is further behind than this.
+     */
+    private Duration maxReplicaLag = Duration.ofSeconds(1);
+
+    /**
+     * Reads go to the primary for this long after a write of this instance, zero disables it.
+     */
+    private Duration readYourWritesWindow = Duration.ZERO;
+
+    /**
+     * Query run on the replica returning its lag in milliseconds, when empty the lag is assumed to be zero.
+     */
+    private String lagQuery;
+
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+}
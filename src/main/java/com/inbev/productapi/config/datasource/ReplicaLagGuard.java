@@ -0,0 +1,72 @@
+package com.inbev.productapi.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether read only work may go to the replica.
+ *
+ * Reads fall back to the primary while the measured replica lag is above {@code maxLag}, and for
+ * {@code readYourWritesWindow} after a write committed by this instance.
+ */
+@Slf4j
+public class ReplicaLagGuard implements AutoCloseable {
+
+    private final ReplicaLagProbe probe;
+    private final long maxLagMillis;
+    private final long readYourWritesWindowMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile long measuredLagMillis;
+    private volatile long lastWriteAt;
+
+    public ReplicaLagGuard(ReplicaLagProbe probe, Duration maxLag, Duration readYourWritesWindow) {
+        this.probe = probe;
+        this.maxLagMillis = maxLag.toMillis();
+        this.readYourWritesWindowMillis = readYourWritesWindow.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(Duration checkInterval) {
+        long interval = checkInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean replicaUsable() {
+        if (measuredLagMillis > maxLagMillis) {
+            return false;
+        }
+        return readYourWritesWindowMillis == 0
+                || System.currentTimeMillis() - lastWriteAt >= readYourWritesWindowMillis;
+    }
+
+    public void recordWrite() {
+        lastWriteAt = System.currentTimeMillis();
+    }
+
+    public void refresh() {
+        try {
+            measuredLagMillis = probe.lagMillis();
+        } catch (Exception ex) {
+            log.warn("Replica lag probe failed, routing reads to the primary: {}", ex.getMessage());
+            measuredLagMillis = Long.MAX_VALUE;
+        }
+    }
+
+    public long getMeasuredLagMillis() {
+        return measuredLagMillis;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package com.inbev.productapi.config.datasource;
+
+/**
+ * Measures how far the read replica is behind the primary.
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    /**
+     * @return the replication lag in milliseconds
+     * @throws Exception when the replica can't be reached, the replica is then considered unusable
+     */
+    long lagMillis() throws Exception;
+
+    static ReplicaLagProbe none() {
+        return () -> 0L;
+    }
+}
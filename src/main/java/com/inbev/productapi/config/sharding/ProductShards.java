@@ -0,0 +1,80 @@
+package com.inbev.productapi.config.sharding;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Owns the shard pools and knows where a product lives.
+ *
+ * Every shard generates ids in its own range, so the id alone locates a product. New products are placed
+ * on the home shard of their name, renamed products stay where they are.
+ */
+public class ProductShards implements AutoCloseable {
+
+    private final List<HikariDataSource> dataSources;
+    private final long idRangeSize;
+
+    public ProductShards(List<HikariConfig> configs, long idRangeSize) {
+        if (configs.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be configured");
+        }
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < configs.size(); i++) {
+            HikariConfig config = configs.get(i);
+            if (config.getPoolName() == null) {
+                config.setPoolName("product-shard-" + i);
+            }
+            pools.add(new HikariDataSource(config));
+        }
+        this.dataSources = Collections.unmodifiableList(pools);
+        this.idRangeSize = idRangeSize;
+    }
+
+    public int count() {
+        return dataSources.size();
+    }
+
+    public HikariDataSource get(int shard) {
+        return dataSources.get(shard);
+    }
+
+    /**
+     * @return the shard owning the id, or -1 when the id is outside of every range
+     */
+    public int shardForId(long id) {
+        if (id < 1) {
+            return -1;
+        }
+        long shard = (id - 1) / idRangeSize;
+        return shard < dataSources.size() ? (int) shard : -1;
+    }
+
+    public int homeShardForName(String name) {
+        return Math.floorMod(Objects.hashCode(name), dataSources.size());
+    }
+
+    /**
+     * Moves the id generator of a freshly migrated shard to the start of its range.
+     */
+    public void initializeIdRange(int shard) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(get(shard));
+        long start = shard * idRangeSize + 1;
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM product", Long.class);
+        if (maxId < start) {
+            jdbcTemplate.execute("ALTER TABLE product ALTER COLUMN id RESTART WITH " + start);
+        } else if (maxId >= start + idRangeSize - 1) {
+            throw new IllegalStateException("Shard " + shard + " exhausted its id range");
+        }
+    }
+
+    @Override
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,35 @@
+package com.inbev.productapi.config.sharding;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Remembers on which shard a name was last found.
+ *
+ * Entries are only hints: a stale entry costs one extra query before the lookup falls back
+ * to the home shard and then to every shard.
+ */
+public class ShardDirectory {
+
+    private final Cache<String, Integer> shardByName;
+
+    public ShardDirectory(long maximumSize) {
+        this.shardByName = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    public Integer get(String name) {
+        return shardByName.getIfPresent(name);
+    }
+
+    public void put(String name, int shard) {
+        shardByName.put(name, shard);
+    }
+
+    public void remove(String name) {
+        shardByName.invalidate(name);
+    }
+
+    public void clear() {
+        shardByName.invalidateAll();
+    }
+}
@@ -0,0 +1,31 @@
+package com.inbev.productapi.config.sharding;
+
+import com.zaxxer.hikari.HikariConfig;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("product.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    /**
+     * Number of ids owned by each shard, shard {@code n} generates ids starting at {@code n * idRangeSize + 1}.
+     */
+    private long idRangeSize = 1_000_000_000_000L;
+
+    /**
+     * Maximum number of name to shard entries kept by the directory.
+     */
+    private long directorySize = 100_000;
+
+    /**
+     * One pool per shard, using the Hikari property names ({@code jdbc-url}, {@code username}, ...).
+     * The order of the shards must never change once ids were generated.
+     */
+    private List<HikariConfig> shards = new ArrayList<>();
+}
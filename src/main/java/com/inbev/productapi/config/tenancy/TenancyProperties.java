@@ -0,0 +1,29 @@
+package com.inbev.productapi.config.tenancy;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties("product.tenancy")
+public class TenancyProperties {
+
+    /**
+     * Request header naming the tenant (the country catalog) of a request.
+     */
+    private String header = "X-Tenant-Id";
+
+    /**
+     * Tenant of the requests without the header, blank to reject them.
+     */
+    private String defaultTenant = TenantContext.DEFAULT_TENANT;
+
+    /**
+     * Tenants served by this deployment, requests for any other tenant are rejected. The header is not authenticated,
+     * the list bounds what a client can make the instance allocate per tenant.
+     */
+    private Set<String> tenants = new LinkedHashSet<>(Collections.singleton(TenantContext.DEFAULT_TENANT));
+}
@@ -1,7 +1,10 @@
 package com.inbev.productapi.exception;
 
+/**
+ * An invalid request rather than a bug, reported to the client without recording a stack trace.
+ */
 public class BusinessException extends RuntimeException {
     public BusinessException(String string) {
-        super(string);
+        super(string, null, false, false);
     }
 }
@@ -0,0 +1,7 @@
+package com.inbev.productapi.exception;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String string) {
+        super(string, null, false, false);
+    }
+}
@@ -0,0 +1,13 @@
+package com.inbev.productapi.exception;
+
+/**
+ * Stackless and shared, a lookup of a missing product costs no allocation.
+ */
+public class ProductNotFoundException extends RuntimeException {
+
+    public static final ProductNotFoundException INSTANCE = new ProductNotFoundException();
+
+    private ProductNotFoundException() {
+        super("Product not found", null, false, false);
+    }
+}
@@ -0,0 +1,11 @@
+package com.inbev.productapi.exception;
+
+/**
+ * Thrown on writes to an instance serving a read-only copy of the catalog, writes go to the primary instances.
+ * Expected in this mode, so no stack trace is recorded.
+ */
+public class ReadOnlyCatalogException extends RuntimeException {
+    public ReadOnlyCatalogException(String message) {
+        super(message, null, false, false);
+    }
+}
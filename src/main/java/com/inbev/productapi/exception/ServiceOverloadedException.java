@@ -0,0 +1,10 @@
+package com.inbev.productapi.exception;
+
+/**
+ * Thrown when the instance is already overloaded, filling in a stack trace would only add to it.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String string) {
+        super(string, null, false, false);
+    }
+}
@@ -1,15 +1,21 @@
 package com.inbev.productapi.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.inbev.productapi.config.tenancy.TenantContext;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
+import java.util.List;
 
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
@@ -32,4 +38,40 @@ public class Product {
 
     @Column
     private String brand;
+
+    /**
+     * Catalog the product belongs to, the tenant of the current thread when left out, see {@link TenantContext}.
+     */
+    @Column(name = "tenant_id", nullable = false, updatable = false)
+    private String tenantId;
+
+    @Version
+    @Column
+    private Long version;
+
+    /**
+     * Only loaded by the variant queries of the service, never cached or serialized with the product. Loading the
+     * variants of one product of a page loads those of up to 100 products in the same query.
+     */
+    @OneToMany(mappedBy = "product")
+    @OrderBy("packSize")
+    @BatchSize(size = 100)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<ProductVariant> variants;
+
+    /**
+     * @return a copy without the variants, which are bound to the session that loaded them
+     */
+    public Product detachedCopy() {
+        return toBuilder().variants(null).build();
+    }
+
+    @PrePersist
+    void assignTenant() {
+        if (tenantId == null) {
+            tenantId = TenantContext.current();
+        }
+    }
 }
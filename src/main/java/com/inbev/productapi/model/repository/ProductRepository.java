@@ -1,11 +1,36 @@
 package com.inbev.productapi.model.repository;
 
 import com.inbev.productapi.model.entity.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
+@Transactional(readOnly = true)
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    boolean existsByName(String name);
-    Optional<Product> findByName(String name);
+    boolean existsByTenantIdAndName(String tenantId, String name);
+    Optional<Product> findByTenantIdAndName(String tenantId, String name);
+
+    /**
+     * Keyset paging: the next products after {@code id}, in the order and size of the page request.
+     */
+    List<Product> findByIdGreaterThan(Long id, Pageable pageable);
+
+    long countByTenantId(String tenantId);
+
+    /**
+     * Keyset paging of the products of one tenant within the id range ending at {@code lastId}, inclusive.
+     */
+    List<Product> findByTenantIdAndIdGreaterThanAndIdLessThanEqual(String tenantId, Long id, Long lastId,
+                                                                    Pageable pageable);
+
+    Optional<Product> findFirstByTenantIdOrderByIdAsc(String tenantId);
+
+    Optional<Product> findFirstByTenantIdOrderByIdDesc(String tenantId);
+
+    @EntityGraph(attributePaths = "variants")
+    Optional<Product> findWithVariantsById(Long id);
 }
@@ -0,0 +1,9 @@
+package com.inbev.productapi.model.repository;
+
+import com.inbev.productapi.model.entity.ProductVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+public interface ProductVariantRepository extends JpaRepository<ProductVariant, Long> {
+}
@@ -1,9 +1,12 @@
 package com.inbev.productapi.service;
 
 import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.entity.ProductVariant;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProductService {
@@ -17,4 +20,18 @@ public interface ProductService {
     Page<Product> find(Product filter, Pageable pageRequest);
 
     Optional<Product> getByName(String name);
+
+    List<Product> getByIds(Collection<Long> ids);
+
+    /**
+     * @return the product with its variants loaded, in one query
+     */
+    Optional<Product> getWithVariants(Long id);
+
+    /**
+     * Like {@link #find}, with the variants of the page loaded in one more query.
+     */
+    Page<Product> findWithVariants(Product filter, Pageable pageRequest);
+
+    ProductVariant addVariant(Product product, ProductVariant variant);
 }
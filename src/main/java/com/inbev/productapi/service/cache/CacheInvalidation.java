@@ -0,0 +1,14 @@
+package com.inbev.productapi.service.cache;
+
+import lombok.Value;
+
+/**
+ * Broadcast after a product changed so that every instance drops its near cache entries.
+ */
+@Value
+public class CacheInvalidation {
+    String origin;
+    String tenantId;
+    Long productId;
+    String productName;
+}
@@ -0,0 +1,13 @@
+package com.inbev.productapi.service.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations to every instance, typically backed by a pub/sub channel.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
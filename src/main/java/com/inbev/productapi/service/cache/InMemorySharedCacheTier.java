@@ -0,0 +1,36 @@
+package com.inbev.productapi.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Embedded stand-in for the shared tier, used when no remote cache is configured and in tests.
+ */
+public class InMemorySharedCacheTier implements SharedCacheTier {
+
+    private final Cache<String, byte[]> entries;
+
+    public InMemorySharedCacheTier(long maximumSize, Duration timeToLive) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        entries.put(key, value);
+    }
+
+    @Override
+    public void evict(String key) {
+        entries.invalidate(key);
+    }
+}
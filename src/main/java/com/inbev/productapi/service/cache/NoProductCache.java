@@ -0,0 +1,41 @@
+package com.inbev.productapi.service.cache;
+
+import com.inbev.productapi.model.entity.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+class NoProductCache implements ProductCache {
+
+    @Override
+    public Optional<Product> getById(Long id, Function<Long, Optional<Product>> loader) {
+        return loader.apply(id);
+    }
+
+    @Override
+    public Optional<Product> getByName(String name,
+                                       Function<String, Optional<Product>> loader,
+                                       Function<Long, Optional<Product>> idLoader) {
+        return loader.apply(name);
+    }
+
+    @Override
+    public List<Product> getAllById(Collection<Long> ids, Function<Collection<Long>, List<Product>> loader) {
+        Map<Long, Product> found = loader.apply(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream().distinct().map(found::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @Override
+    public void evict(Product product) {
+    }
+
+    @Override
+    public void put(Product product) {
+    }
+}
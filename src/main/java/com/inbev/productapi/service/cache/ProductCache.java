@@ -0,0 +1,39 @@
+package com.inbev.productapi.service.cache;
+
+import com.inbev.productapi.model.entity.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read through cache of products, returned products can be modified freely by the caller.
+ */
+public interface ProductCache {
+
+    Optional<Product> getById(Long id, Function<Long, Optional<Product>> loader);
+
+    Optional<Product> getByName(String name,
+                                Function<String, Optional<Product>> loader,
+                                Function<Long, Optional<Product>> idLoader);
+
+    /**
+     * @return the products found, in the order of the ids, loading every missing product with a single call
+     */
+    List<Product> getAllById(Collection<Long> ids, Function<Collection<Long>, List<Product>> loader);
+
+    /**
+     * Drops the product everywhere, again after the commit when called inside a transaction.
+     */
+    void evict(Product product);
+
+    /**
+     * Stores the product as the current one unless a newer version is cached, for values not written yet.
+     */
+    void put(Product product);
+
+    static ProductCache none() {
+        return new NoProductCache();
+    }
+}
@@ -0,0 +1,35 @@
+package com.inbev.productapi.service.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("product.cache")
+public class ProductCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Products kept in the near cache of each tenant.
+     */
+    private long nearMaximumSize = 10_000;
+
+    /**
+     * Tenants with a near cache region at a time, the least recently used region is dropped beyond it.
+     */
+    private int nearMaximumTenants = 32;
+
+    /**
+     * Upper bound of the staleness of a near entry when an invalidation gets lost.
+     */
+    private Duration nearTimeToLive = Duration.ofSeconds(30);
+
+    /**
+     * Only used by the embedded shared tier.
+     */
+    private long sharedMaximumSize = 100_000;
+
+    private Duration sharedTimeToLive = Duration.ofMinutes(10);
+}
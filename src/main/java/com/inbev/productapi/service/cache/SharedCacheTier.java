@@ -0,0 +1,15 @@
+package com.inbev.productapi.service.cache;
+
+/**
+ * Cache shared by every instance of the service, typically a Redis or Memcached cluster.
+ *
+ * Implementations own the expiration of the entries.
+ */
+public interface SharedCacheTier {
+
+    byte[] get(String key);
+
+    void put(String key, byte[] value);
+
+    void evict(String key);
+}
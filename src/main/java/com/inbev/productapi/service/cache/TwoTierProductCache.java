@@ -0,0 +1,290 @@
+package com.inbev.productapi.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.model.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Near cache in the heap of this instance in front of a cache shared by every instance.
+ *
+ * Names are indexed by id, a name entry is only trusted when the product it points to still has that name,
+ * so renaming a product only needs to evict the product itself. Writes evict both tiers and broadcast the
+ * invalidation so the other instances drop their near entries. The shared tier is optional on the read path:
+ * when it fails the product is loaded from the database.
+ *
+ * Each tenant has its own near cache region, bounded on its own, and its own shared keys: lookups only see the
+ * products cached for the tenant of the current thread and a busy tenant can't evict the products of the others.
+ * The number of regions is bounded too, a region idle for the time to live only holds expired entries and is dropped.
+ *
+ * A load racing an update could read the old row and cache it after the update evicted it, so every eviction leaves
+ * a tombstone and a loaded product is only stored when no eviction happened since its load started, and never over
+ * a newer version. Remote instances record the tombstone when the invalidation reaches them.
+ */
+@Slf4j
+public class TwoTierProductCache implements ProductCache {
+
+    private final String node = UUID.randomUUID().toString();
+    private final AtomicLong clock = new AtomicLong();
+    private final Cache<String, Region> regions;
+    private final long nearMaximumSize;
+    private final Duration nearTimeToLive;
+    private final SharedCacheTier shared;
+    private final CacheInvalidationBus bus;
+    private final ObjectMapper objectMapper;
+
+    public TwoTierProductCache(SharedCacheTier shared, CacheInvalidationBus bus, ObjectMapper objectMapper,
+                               long nearMaximumSize, int nearMaximumTenants, Duration nearTimeToLive) {
+        this.regions = Caffeine.newBuilder()
+                .maximumSize(nearMaximumTenants)
+                .expireAfterAccess(nearTimeToLive)
+                .build();
+        this.nearMaximumSize = nearMaximumSize;
+        this.nearTimeToLive = nearTimeToLive;
+        this.shared = shared;
+        this.bus = bus;
+        this.objectMapper = objectMapper;
+        bus.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    public Optional<Product> getById(Long id, Function<Long, Optional<Product>> loader) {
+        if (id == null) {
+            return loader.apply(id);
+        }
+        String tenant = TenantContext.current();
+        Product product = near(tenant, id);
+        if (product != null) {
+            return Optional.of(copy(product));
+        }
+        long started = clock.get();
+        Optional<Product> loaded = loader.apply(id);
+        loaded.ifPresent(found -> store(found, started));
+        return loaded;
+    }
+
+    @Override
+    public Optional<Product> getByName(String name,
+                                       Function<String, Optional<Product>> loader,
+                                       Function<Long, Optional<Product>> idLoader) {
+        if (name == null) {
+            return loader.apply(name);
+        }
+        String tenant = TenantContext.current();
+        Region region = region(tenant);
+        Long id = region.idByName.getIfPresent(name);
+        if (id == null) {
+            id = readSharedId(tenant, name);
+            if (id != null) {
+                region.idByName.put(name, id);
+            }
+        }
+        if (id != null) {
+            Optional<Product> product = getById(id, idLoader);
+            if (product.isPresent() && name.equals(product.get().getName())) {
+                return product;
+            }
+            region.idByName.invalidate(name);
+            evictShared(nameKey(tenant, name));
+        }
+        long started = clock.get();
+        Optional<Product> loaded = loader.apply(name);
+        loaded.ifPresent(found -> store(found, started));
+        return loaded;
+    }
+
+    @Override
+    public List<Product> getAllById(Collection<Long> ids, Function<Collection<Long>, List<Product>> loader) {
+        String tenant = TenantContext.current();
+        Map<Long, Product> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Product product = near(tenant, id);
+            if (product != null) {
+                found.put(id, copy(product));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long started = clock.get();
+            for (Product product : loader.apply(missing)) {
+                store(product, started);
+                found.put(product.getId(), product);
+            }
+        }
+        return ids.stream().distinct().map(found::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @Override
+    public void evict(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        String tenant = product.getTenantId() != null ? product.getTenantId() : TenantContext.current();
+        Long id = product.getId();
+        String name = product.getName();
+        evict(tenant, id, name);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(tenant, id, name);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void put(Product product) {
+        if (product != null) {
+            // not a load, no eviction can make it stale
+            store(product, Long.MAX_VALUE);
+        }
+    }
+
+    private void evict(String tenant, Long id, String name) {
+        invalidateNear(tenant, id, name);
+        evictShared(idKey(tenant, id));
+        if (name != null) {
+            evictShared(nameKey(tenant, name));
+        }
+        bus.publish(new CacheInvalidation(node, tenant, id, name));
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (!node.equals(invalidation.getOrigin())) {
+            invalidateNear(invalidation.getTenantId(), invalidation.getProductId(), invalidation.getProductName());
+        }
+    }
+
+    private void invalidateNear(String tenant, Long id, String name) {
+        Region region = region(tenant);
+        region.evictedAt.put(id, clock.incrementAndGet());
+        region.byId.invalidate(id);
+        if (name != null) {
+            region.idByName.invalidate(name);
+        }
+    }
+
+    private Region region(String tenant) {
+        return regions.get(tenant, ignored -> new Region(nearMaximumSize, nearTimeToLive));
+    }
+
+    private Product near(String tenant, Long id) {
+        Region region = region(tenant);
+        Product product = region.byId.getIfPresent(id);
+        if (product == null) {
+            product = readShared(tenant, id);
+            if (product != null) {
+                region.byId.put(id, product);
+            }
+        }
+        return product;
+    }
+
+    private void store(Product product, long started) {
+        if (product.getId() == null) {
+            return;
+        }
+        Product snapshot = copy(product);
+        String tenant = snapshot.getTenantId() != null ? snapshot.getTenantId() : TenantContext.current();
+        Region region = region(tenant);
+        Product stored = region.byId.asMap().compute(snapshot.getId(), (id, cached) -> {
+            Long evictedAt = region.evictedAt.getIfPresent(id);
+            if (evictedAt != null && evictedAt > started) {
+                return cached;
+            }
+            return cached != null && isOlder(snapshot, cached) ? cached : snapshot;
+        });
+        if (stored != snapshot) {
+            return;
+        }
+        try {
+            shared.put(idKey(tenant, snapshot.getId()), objectMapper.writeValueAsBytes(snapshot));
+            if (snapshot.getName() != null) {
+                region.idByName.put(snapshot.getName(), snapshot.getId());
+                shared.put(nameKey(tenant, snapshot.getName()),
+                        snapshot.getId().toString().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (Exception ex) {
+            log.warn("Could not write product {} to the shared cache: {}", snapshot.getId(), ex.getMessage());
+        }
+    }
+
+    private Product readShared(String tenant, Long id) {
+        try {
+            byte[] value = shared.get(idKey(tenant, id));
+            return value == null ? null : objectMapper.readValue(value, Product.class);
+        } catch (Exception ex) {
+            log.warn("Could not read product {} from the shared cache: {}", id, ex.getMessage());
+            return null;
+        }
+    }
+
+    private Long readSharedId(String tenant, String name) {
+        try {
+            byte[] value = shared.get(nameKey(tenant, name));
+            return value == null ? null : Long.valueOf(new String(value, StandardCharsets.UTF_8));
+        } catch (Exception ex) {
+            log.warn("Could not read name {} from the shared cache: {}", name, ex.getMessage());
+            return null;
+        }
+    }
+
+    private void evictShared(String key) {
+        try {
+            shared.evict(key);
+        } catch (Exception ex) {
+            log.warn("Could not evict {} from the shared cache: {}", key, ex.getMessage());
+        }
+    }
+
+    private static String idKey(String tenant, Long id) {
+        return "product:" + tenant + ":id:" + id;
+    }
+
+    private static String nameKey(String tenant, String name) {
+        return "product:" + tenant + ":name:" + name;
+    }
+
+    private static boolean isOlder(Product product, Product cached) {
+        return product.getVersion() != null && cached.getVersion() != null
+                && product.getVersion() < cached.getVersion();
+    }
+
+    private static Product copy(Product product) {
+        return product.detachedCopy();
+    }
+
+    private static final class Region {
+        private final Cache<Long, Product> byId;
+        private final Cache<String, Long> idByName;
+        private final Cache<Long, Long> evictedAt;
+
+        private Region(long maximumSize, Duration timeToLive) {
+            this.byId = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).build();
+            this.idByName = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).build();
+            this.evictedAt = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).build();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.inbev.productapi.service.coalescing;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Merges concurrent loads of distinct keys into a single bulk load.
+ *
+ * The first caller opens a batch and waits until the batch window elapses or the batch is full, then loads every
+ * key collected meanwhile at once. The other callers only wait for their result, callers asking for a key already
+ * in the open batch share its result.
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<Collection<K>, Map<K, V>> bulkLoader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+    private Batch<K, V> open;
+
+    public BatchLoader(Function<Collection<K>, Map<K, V>> bulkLoader, Duration window, int maxBatchSize) {
+        this.bulkLoader = bulkLoader;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * @return the value of the key, null when the bulk load didn't return it
+     */
+    public V load(K key) {
+        Batch<K, V> batch;
+        CompletableFuture<V> result;
+        boolean leader = false;
+        synchronized (lock) {
+            if (open == null) {
+                open = new Batch<>();
+                leader = true;
+            }
+            batch = open;
+            result = batch.pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.pending.size() >= maxBatchSize) {
+                open = null;
+                batch.full.countDown();
+            }
+        }
+        if (leader) {
+            awaitWindow(batch);
+            synchronized (lock) {
+                if (open == batch) {
+                    open = null;
+                }
+            }
+            dispatch(batch);
+        }
+        return SingleFlight.await(result);
+    }
+
+    private void awaitWindow(Batch<K, V> batch) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        try {
+            Map<K, V> values = bulkLoader.apply(batch.pending.keySet());
+            batch.pending.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (RuntimeException | Error ex) {
+            batch.pending.values().forEach(future -> future.completeExceptionally(ex));
+        }
+    }
+
+    private static class Batch<K, V> {
+        // only modified while holding the lock of the loader, read by the leader once the batch is closed
+        final Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+        final CountDownLatch full = new CountDownLatch(1);
+    }
+}
@@ -0,0 +1,29 @@
+package com.inbev.productapi.service.coalescing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("product.coalescing")
+public class CoalescingProperties {
+
+    public enum Mode {
+        /** every cache miss queries the database */
+        NONE,
+        /** concurrent misses of the same id or name share one query */
+        SINGLE_FLIGHT,
+        /** like single flight, concurrent misses of distinct ids are also merged into one query */
+        BATCH
+    }
+
+    private Mode mode = Mode.SINGLE_FLIGHT;
+
+    /**
+     * How long the first miss of a batch waits for others, only used in batch mode.
+     */
+    private Duration batchWindow = Duration.ofMillis(2);
+
+    private int maxBatchSize = 100;
+}
@@ -0,0 +1,92 @@
+package com.inbev.productapi.service.coalescing;
+
+import com.inbev.productapi.config.sharding.ShardContext;
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads products from the repository on cache misses, coalescing concurrent loads according to the mode.
+ *
+ * Coalesced loads are keyed by the current shard as well, a load never serves callers working on another shard.
+ * Every caller gets its own copy of the loaded product.
+ */
+public class ProductLoader {
+
+    private final ProductRepository repository;
+    private final CoalescingProperties.Mode mode;
+    private final SingleFlight<List<Object>, Optional<Product>> flights = new SingleFlight<>();
+    private final ConcurrentMap<Integer, BatchLoader<Long, Product>> batchLoaders = new ConcurrentHashMap<>();
+    private final Duration batchWindow;
+    private final int maxBatchSize;
+
+    public ProductLoader(ProductRepository repository, CoalescingProperties properties) {
+        this.repository = repository;
+        this.mode = properties.getMode();
+        this.batchWindow = properties.getBatchWindow();
+        this.maxBatchSize = properties.getMaxBatchSize();
+    }
+
+    public static ProductLoader direct(ProductRepository repository) {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setMode(CoalescingProperties.Mode.NONE);
+        return new ProductLoader(repository, properties);
+    }
+
+    public Optional<Product> findById(Long id) {
+        switch (mode) {
+            case SINGLE_FLIGHT:
+                return copy(flights.execute(key("id", id), () -> repository.findById(id)));
+            case BATCH:
+                return copy(Optional.ofNullable(batchLoader().load(id)));
+            default:
+                return repository.findById(id);
+        }
+    }
+
+    /**
+     * Names are unique within the tenant of the current thread, ids are unique across tenants.
+     */
+    public Optional<Product> findByName(String name) {
+        String tenant = TenantContext.current();
+        if (mode == CoalescingProperties.Mode.NONE) {
+            return repository.findByTenantIdAndName(tenant, name);
+        }
+        return copy(flights.execute(key("name", Arrays.asList(tenant, name)),
+                () -> repository.findByTenantIdAndName(tenant, name)));
+    }
+
+    private BatchLoader<Long, Product> batchLoader() {
+        return batchLoaders.computeIfAbsent(currentShard(),
+                shard -> new BatchLoader<>(this::findAllById, batchWindow, maxBatchSize));
+    }
+
+    private Map<Long, Product> findAllById(Collection<Long> ids) {
+        return repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    private static List<Object> key(String kind, Object value) {
+        return Arrays.asList(kind, currentShard(), value);
+    }
+
+    private static Integer currentShard() {
+        Integer shard = ShardContext.current();
+        return shard == null ? -1 : shard;
+    }
+
+    private static Optional<Product> copy(Optional<Product> product) {
+        return product.map(Product::detachedCopy);
+    }
+}
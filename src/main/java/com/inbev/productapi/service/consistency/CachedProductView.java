@@ -0,0 +1,38 @@
+package com.inbev.productapi.service.consistency;
+
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.service.cache.ProductCache;
+
+import java.util.Optional;
+
+/**
+ * The product cache, repaired by evicting the diverging product so the next read loads it again.
+ */
+public class CachedProductView implements DerivedProductView {
+
+    private final ProductCache cache;
+
+    public CachedProductView(ProductCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public String getName() {
+        return "cache";
+    }
+
+    @Override
+    public boolean isComplete() {
+        return false;
+    }
+
+    @Override
+    public Optional<Product> peek(Long id) {
+        return cache.getById(id, missing -> Optional.empty());
+    }
+
+    @Override
+    public void repair(Product current) {
+        cache.evict(current);
+    }
+}
@@ -0,0 +1,174 @@
+package com.inbev.productapi.service.consistency;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress and report of one run of {@link ProductConsistencyChecker}, updated while it runs.
+ *
+ * The checksum of the catalog is the sum of a CRC32 per row, so it doesn't depend on how the scan was split and can
+ * be compared between databases holding the same products.
+ */
+public class ConsistencyCheck {
+
+    public enum Status {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String tenantId;
+    private final boolean repair;
+    private final long totalRows;
+    private final int maxReportedDivergences;
+    private final Instant startedAt = Instant.now();
+    private final LongAdder rowsScanned = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder divergingChunks = new LongAdder();
+    private final LongAdder divergenceCount = new LongAdder();
+    private final LongAdder repaired = new LongAdder();
+    private final AtomicLong checksum = new AtomicLong();
+    private final List<Divergence> divergences = new ArrayList<>();
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Status status = Status.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+
+    ConsistencyCheck(String tenantId, boolean repair, long totalRows, int maxReportedDivergences) {
+        this.tenantId = tenantId;
+        this.repair = repair;
+        this.totalRows = totalRows;
+        this.maxReportedDivergences = maxReportedDivergences;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public boolean isRepair() {
+        return repair;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return the product count when the check started
+     */
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public long getRowsScanned() {
+        return rowsScanned.sum();
+    }
+
+    public double getProgress() {
+        return totalRows == 0 ? 1 : Math.min(1, (double) getRowsScanned() / totalRows);
+    }
+
+    public double getRowsPerSecond() {
+        Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return getRowsScanned() * 1000.0 / millis;
+    }
+
+    public long getChunks() {
+        return chunks.sum();
+    }
+
+    public long getDivergingChunks() {
+        return divergingChunks.sum();
+    }
+
+    public long getDivergenceCount() {
+        return divergenceCount.sum();
+    }
+
+    public long getRepaired() {
+        return repaired.sum();
+    }
+
+    public String getChecksum() {
+        return Long.toHexString(checksum.get());
+    }
+
+    public List<Divergence> getDivergences() {
+        synchronized (divergences) {
+            return new ArrayList<>(divergences);
+        }
+    }
+
+    public void cancel() {
+        if (status == Status.RUNNING) {
+            status = Status.CANCELLED;
+        }
+    }
+
+    public boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+
+    /**
+     * @return whether the check finished within the timeout
+     */
+    public boolean await(Duration timeout) throws InterruptedException {
+        return done.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    void chunkChecked(int rows, long chunkChecksum, List<Divergence> found, boolean repaired) {
+        rowsScanned.add(rows);
+        chunks.increment();
+        checksum.addAndGet(chunkChecksum);
+        if (found.isEmpty()) {
+            return;
+        }
+        divergingChunks.increment();
+        divergenceCount.add(found.size());
+        if (repaired) {
+            this.repaired.add(found.size());
+        }
+        synchronized (divergences) {
+            for (Divergence divergence : found) {
+                if (divergences.size() == maxReportedDivergences) {
+                    break;
+                }
+                divergences.add(divergence);
+            }
+        }
+    }
+
+    void finish(Throwable error) {
+        if (error != null) {
+            failure = error.toString();
+            status = Status.FAILED;
+        } else if (status == Status.RUNNING) {
+            status = Status.COMPLETED;
+        }
+        finishedAt = Instant.now();
+        done.countDown();
+    }
+}
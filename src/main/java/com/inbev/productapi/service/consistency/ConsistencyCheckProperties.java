@@ -0,0 +1,39 @@
+package com.inbev.productapi.service.consistency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("product.consistency")
+public class ConsistencyCheckProperties {
+
+    /**
+     * Whether the consistency check endpoints are served, off by default.
+     */
+    private boolean enabled;
+
+    /**
+     * Secret the callers of the consistency check endpoints send in the X-Admin-Key header, required when enabled.
+     */
+    private String adminKey;
+
+    /**
+     * Products read per query.
+     */
+    private int chunkSize = 1_000;
+
+    /**
+     * Chunks checked at the same time, half the processors by default to leave the rest to live traffic.
+     */
+    private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Upper bound of the scan rate over all threads, 0 for no limit.
+     */
+    private int maxRowsPerSecond = 20_000;
+
+    /**
+     * Diverging products listed in a report, the count goes on past it.
+     */
+    private int maxReportedDivergences = 1_000;
+}
@@ -0,0 +1,34 @@
+package com.inbev.productapi.service.consistency;
+
+import com.inbev.productapi.model.entity.Product;
+
+import java.util.Optional;
+
+/**
+ * A copy of product rows kept outside the product table, checked against it by {@link ProductConsistencyChecker}.
+ */
+public interface DerivedProductView {
+
+    String getName();
+
+    /**
+     * @return whether every product must be in the view, a cache only has to agree on the products it holds
+     */
+    boolean isComplete();
+
+    /**
+     * @return the product as held by the view, without loading it when missing
+     */
+    Optional<Product> peek(Long id);
+
+    /**
+     * Brings the view back in line for one product, {@code current} being its row in the table.
+     */
+    void repair(Product current);
+
+    /**
+     * Called once after a check that repaired the view, for views that repair in bulk.
+     */
+    default void afterRepair() {
+    }
+}
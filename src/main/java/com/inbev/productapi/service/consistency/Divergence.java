@@ -0,0 +1,21 @@
+package com.inbev.productapi.service.consistency;
+
+import lombok.Value;
+
+/**
+ * A product a derived view disagrees on with the product table.
+ */
+@Value
+public class Divergence {
+
+    public enum Kind {
+        /** the view holds other values than the row */
+        STALE,
+        /** a complete view doesn't hold the row */
+        MISSING
+    }
+
+    String view;
+    Long productId;
+    Kind kind;
+}
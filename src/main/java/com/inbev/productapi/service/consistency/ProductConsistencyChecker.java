@@ -0,0 +1,289 @@
+package com.inbev.productapi.service.consistency;
+
+import com.inbev.productapi.config.sharding.ShardContext;
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Scans the products of one tenant and checks the {@link DerivedProductView derived views} against them, optionally
+ * repairing them.
+ *
+ * The id range of each shard is split in halves on a fork-join pool down to about four ranges per thread, each
+ * range is then read in keyset ordered chunks. A chunk is compared row by row with a view only when their checksums
+ * differ. One check runs at a time, throttled to max-rows-per-second, and can be cancelled between chunks.
+ */
+@Slf4j
+public class ProductConsistencyChecker {
+
+    private static final int KEPT_CHECKS = 10;
+
+    private final ProductRepository repository;
+    private final List<DerivedProductView> views;
+    private final ConsistencyCheckProperties properties;
+    private final int shardCount;
+    private final Counter rows;
+    private final Map<String, Counter> divergences = new LinkedHashMap<>();
+    private final Map<String, ConsistencyCheck> checks = new LinkedHashMap<>();
+    private ConsistencyCheck running;
+
+    /**
+     * @param shardCount the shards to scan with {@link ShardContext}, 0 when the table isn't sharded
+     */
+    public ProductConsistencyChecker(ProductRepository repository, List<DerivedProductView> views,
+                                     ConsistencyCheckProperties properties, int shardCount, MeterRegistry registry) {
+        this.repository = repository;
+        this.views = views;
+        this.properties = properties;
+        this.shardCount = shardCount;
+        this.rows = Counter.builder("product.consistency.rows")
+                .description("Products checked against the derived views")
+                .register(registry);
+        for (DerivedProductView view : views) {
+            divergences.put(view.getName(), Counter.builder("product.consistency.divergences")
+                    .description("Products a derived view disagreed on with the product table")
+                    .tag("view", view.getName())
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Starts a check of the products of the tenant in the background.
+     *
+     * @return the check, empty when another one is still running
+     */
+    public synchronized Optional<ConsistencyCheck> start(String tenantId, boolean repair) {
+        if (running != null && running.isRunning()) {
+            return Optional.empty();
+        }
+        long total = 0;
+        for (Integer shard : shards()) {
+            total += onShard(shard, () -> repository.countByTenantId(tenantId));
+        }
+        ConsistencyCheck check = new ConsistencyCheck(tenantId, repair, total, properties.getMaxReportedDivergences());
+        running = check;
+        checks.put(check.getId(), check);
+        Iterator<String> oldest = checks.keySet().iterator();
+        while (checks.size() > KEPT_CHECKS) {
+            oldest.next();
+            oldest.remove();
+        }
+        Thread thread = new Thread(() -> run(check), "product-consistency-check");
+        thread.setDaemon(true);
+        thread.start();
+        return Optional.of(check);
+    }
+
+    /**
+     * @return the check, empty when it isn't one of the last checks of the tenant
+     */
+    public synchronized Optional<ConsistencyCheck> get(String tenantId, String id) {
+        return Optional.ofNullable(checks.get(id)).filter(check -> check.getTenantId().equals(tenantId));
+    }
+
+    private void run(ConsistencyCheck check) {
+        log.info("Checking {} products of tenant {} against {}, repair {}", check.getTotalRows(),
+                check.getTenantId(), divergences.keySet(), check.isRepair());
+        ForkJoinPool pool = new ForkJoinPool(properties.getParallelism());
+        ScanThrottle throttle = new ScanThrottle(properties.getMaxRowsPerSecond());
+        Throwable error = null;
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (Integer shard : shards()) {
+                String tenant = check.getTenantId();
+                Optional<Long> first = onShard(shard,
+                        () -> repository.findFirstByTenantIdOrderByIdAsc(tenant).map(Product::getId));
+                Optional<Long> last = onShard(shard,
+                        () -> repository.findFirstByTenantIdOrderByIdDesc(tenant).map(Product::getId));
+                if (first.isPresent() && last.isPresent()) {
+                    long span = last.get() - first.get() + 1;
+                    long minSpan = Math.max(properties.getChunkSize(), span / (properties.getParallelism() * 4L));
+                    tasks.add(pool.submit(new RangeScan(check, throttle, shard, first.get() - 1, last.get(), minSpan)));
+                }
+            }
+            tasks.forEach(ForkJoinTask::join);
+            if (check.isRepair() && check.getDivergenceCount() > 0) {
+                views.forEach(DerivedProductView::afterRepair);
+            }
+        } catch (Throwable ex) {
+            error = ex;
+            log.error("Consistency check {} failed", check.getId(), ex);
+        } finally {
+            pool.shutdownNow();
+            check.finish(error);
+        }
+        log.info("Consistency check {} {}: {} products at {} rows/s, {} divergences, {} repaired, checksum {}",
+                check.getId(), check.getStatus(), check.getRowsScanned(), Math.round(check.getRowsPerSecond()),
+                check.getDivergenceCount(), check.getRepaired(), check.getChecksum());
+    }
+
+    private void checkChunk(ConsistencyCheck check, List<Product> chunk) {
+        long chunkChecksum = 0;
+        long[] rowChecksums = new long[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            rowChecksums[i] = checksum(chunk.get(i));
+            chunkChecksum += rowChecksums[i];
+        }
+        List<Divergence> found = new ArrayList<>();
+        for (DerivedProductView view : views) {
+            List<Divergence> diverging = compare(view, chunk, rowChecksums, check.isRepair());
+            if (!diverging.isEmpty()) {
+                divergences.get(view.getName()).increment(diverging.size());
+                found.addAll(diverging);
+            }
+        }
+        rows.increment(chunk.size());
+        check.chunkChecked(chunk.size(), chunkChecksum, found, check.isRepair());
+    }
+
+    private List<Divergence> compare(DerivedProductView view, List<Product> chunk, long[] rowChecksums,
+                                     boolean repair) {
+        Product[] held = new Product[chunk.size()];
+        long tableChecksum = 0;
+        long viewChecksum = 0;
+        boolean missing = false;
+        for (int i = 0; i < chunk.size(); i++) {
+            Product row = chunk.get(i);
+            // views are scoped by tenant like the requests they serve
+            held[i] = TenantContext.call(row.getTenantId(), () -> view.peek(row.getId())).orElse(null);
+            if (held[i] != null) {
+                tableChecksum += rowChecksums[i];
+                viewChecksum += checksum(held[i]);
+            } else {
+                missing |= view.isComplete();
+            }
+        }
+        if (tableChecksum == viewChecksum && !missing) {
+            return new ArrayList<>();
+        }
+        List<Divergence> found = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Product current = chunk.get(i);
+            Divergence.Kind kind = null;
+            if (held[i] == null && view.isComplete()) {
+                kind = Divergence.Kind.MISSING;
+            } else if (held[i] != null && !held[i].equals(current)) {
+                kind = Divergence.Kind.STALE;
+            }
+            if (kind != null) {
+                found.add(new Divergence(view.getName(), current.getId(), kind));
+                if (repair) {
+                    view.repair(current);
+                }
+            }
+        }
+        return found;
+    }
+
+    private List<Integer> shards() {
+        List<Integer> shards = new ArrayList<>();
+        if (shardCount == 0) {
+            shards.add(null);
+        }
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(shard);
+        }
+        return shards;
+    }
+
+    private static <T> T onShard(Integer shard, Supplier<T> work) {
+        return shard == null ? work.get() : ShardContext.call(shard, work);
+    }
+
+    static long checksum(Product product) {
+        CRC32 crc = new CRC32();
+        ByteBuffer numbers = ByteBuffer.allocate(24);
+        numbers.putLong(product.getId());
+        numbers.putLong(product.getVersion() == null ? -1 : product.getVersion());
+        numbers.putDouble(product.getPrice());
+        crc.update(numbers.array());
+        update(crc, product.getName());
+        update(crc, product.getDescription());
+        update(crc, product.getBrand());
+        update(crc, product.getTenantId());
+        return crc.getValue();
+    }
+
+    private static void update(CRC32 crc, String value) {
+        if (value == null) {
+            crc.update(0xFF);
+        } else {
+            crc.update(value.getBytes(StandardCharsets.UTF_8));
+            crc.update(0);
+        }
+    }
+
+    /**
+     * Splits its id range in halves until it is small enough, then reads it chunk by chunk.
+     */
+    private class RangeScan extends RecursiveAction {
+
+        private final ConsistencyCheck check;
+        private final ScanThrottle throttle;
+        private final Integer shard;
+        private final long after;
+        private final long last;
+        private final long minSpan;
+
+        RangeScan(ConsistencyCheck check, ScanThrottle throttle, Integer shard, long after, long last, long minSpan) {
+            this.check = check;
+            this.throttle = throttle;
+            this.shard = shard;
+            this.after = after;
+            this.last = last;
+            this.minSpan = minSpan;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - after > minSpan) {
+                long middle = after + (last - after) / 2;
+                invokeAll(new RangeScan(check, throttle, shard, after, middle, minSpan),
+                        new RangeScan(check, throttle, shard, middle, last, minSpan));
+                return;
+            }
+            Pageable chunkRequest = PageRequest.of(0, properties.getChunkSize(), Sort.by("id"));
+            long cursor = after;
+            while (check.isRunning()) {
+                long from = cursor;
+                List<Product> chunk = onShard(shard, () -> repository.findByTenantIdAndIdGreaterThanAndIdLessThanEqual(
+                        check.getTenantId(), from, last, chunkRequest));
+                if (chunk.isEmpty()) {
+                    return;
+                }
+                try {
+                    throttle.acquire(chunk.size());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    check.cancel();
+                    return;
+                }
+                checkChunk(check, chunk);
+                cursor = chunk.get(chunk.size() - 1).getId();
+                if (chunk.size() < properties.getChunkSize()) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.inbev.productapi.service.consistency;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces the threads of a scan to a total number of rows per second. Each caller books its rows on a shared
+ * schedule and sleeps until its slot, so a burst is never larger than one chunk per thread.
+ */
+class ScanThrottle {
+
+    private final long nanosPerRow;
+    private long next = System.nanoTime();
+
+    ScanThrottle(int maxRowsPerSecond) {
+        this.nanosPerRow = maxRowsPerSecond <= 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / maxRowsPerSecond;
+    }
+
+    void acquire(int rows) throws InterruptedException {
+        if (nanosPerRow == 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            next = Math.max(next, now) + rows * nanosPerRow;
+            wait = next - now - rows * nanosPerRow;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
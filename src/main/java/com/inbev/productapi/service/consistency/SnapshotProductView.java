@@ -0,0 +1,48 @@
+package com.inbev.productapi.service.consistency;
+
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.service.snapshot.SnapshotProductService;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The serving snapshot, repaired by writing a new one once the check is done. It lags the table by up to a refresh
+ * interval, so products written since the last refresh are reported as well.
+ */
+public class SnapshotProductView implements DerivedProductView {
+
+    private final SnapshotProductService service;
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    public SnapshotProductView(SnapshotProductService service) {
+        this.service = service;
+    }
+
+    @Override
+    public String getName() {
+        return "snapshot";
+    }
+
+    @Override
+    public boolean isComplete() {
+        return true;
+    }
+
+    @Override
+    public Optional<Product> peek(Long id) {
+        return service.getById(id);
+    }
+
+    @Override
+    public void repair(Product current) {
+        stale.set(true);
+    }
+
+    @Override
+    public void afterRepair() {
+        if (stale.getAndSet(false)) {
+            service.refresh();
+        }
+    }
+}
@@ -1,70 +1,189 @@
 package com.inbev.productapi.service.impl;
 
+import com.inbev.productapi.config.tenancy.TenantContext;
 import com.inbev.productapi.service.ProductService;
 import com.inbev.productapi.exception.BusinessException;
 import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.entity.ProductVariant;
 import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.model.repository.ProductVariantRepository;
+import com.inbev.productapi.service.cache.ProductCache;
+import com.inbev.productapi.service.coalescing.ProductLoader;
+import com.inbev.productapi.service.writebehind.WriteBehindQueue;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImp implements ProductService {
 
     private ProductRepository repository;
+    private ProductVariantRepository variantRepository;
+    private ProductCache cache;
+    private ProductLoader loader;
+    private WriteBehindQueue writeBehind;
 
+    /**
+     * Without variant repository, for callers that never add variants.
+     */
     public ProductServiceImp(ProductRepository repository) {
+        this(repository, null);
+    }
+
+    public ProductServiceImp(ProductRepository repository, ProductVariantRepository variantRepository) {
+
+        this(repository, variantRepository, ProductCache.none(), ProductLoader.direct(repository), null);
+    }
 
+    /**
+     * @param writeBehind queue of updates in write-behind mode, null when updates are written synchronously
+     */
+    @Autowired
+    public ProductServiceImp(ProductRepository repository, ProductVariantRepository variantRepository,
+                             ProductCache cache, ProductLoader loader, @Nullable WriteBehindQueue writeBehind) {
         this.repository = repository;
+        this.variantRepository = variantRepository;
+        this.cache = cache;
+        this.loader = loader;
+        this.writeBehind = writeBehind;
+        if (writeBehind != null) {
+            // readers see the queued update until it is written, or the stored product again when it is dropped
+            writeBehind.onDropped(cache::evict);
+        }
     }
 
     @Override
+    @Transactional
     public Product save(Product product) {
-        if(repository.existsByName(product.getName())){
+        product.setTenantId(TenantContext.current());
+        if(repository.existsByTenantIdAndName(product.getTenantId(), product.getName())){
             throw new BusinessException("Name already registered");
         }
         return repository.save(product);
     }
 
+    /**
+     * Not transactional so cache hits don't open one, a miss runs the read only transaction of the repository.
+     * Products of other tenants are found by their primary key but never returned nor cached.
+     */
     @Override
     public Optional<Product> getById(Long id) {
-        return this.repository.findById(id);
+        return cache.getById(id, this::loadById);
     }
 
+    /**
+     * A version conflict evicts the product, it may come from a stale cached copy the caller can reload.
+     */
     @Override
+    @Transactional
     public void delete(Product product) {
         if (product == null || product.getId() == null){
             throw new IllegalArgumentException("Product id cant be null");
         }
-        this.repository.delete(product);
+        try {
+            this.repository.delete(product);
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            cache.evict(product);
+            throw ex;
+        }
+        cache.evict(product);
     }
 
+    /**
+     * In write-behind mode the product is only queued, cached and returned as is, it is written on the next flush.
+     * Not transactional so queuing doesn't hold a connection, a synchronous update runs the transaction of the
+     * repository. A version conflict evicts the product, it may come from a stale cached copy the caller can reload.
+     */
     @Override
     public Product update(Product product) {
         if (product == null || product.getId() == null){
             throw new IllegalArgumentException("Product id cant be null");
         }
-       return this.repository.save(product);
+        if (writeBehind != null) {
+            writeBehind.submit(product);
+            cache.put(product);
+            return product;
+        }
+        Product updated;
+        try {
+            updated = this.repository.save(product);
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            cache.evict(product);
+            throw ex;
+        }
+        cache.evict(updated);
+        return updated;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Product> find(Product filter, Pageable pageRequest) {
-        Example<Product> example = Example.of(filter,
+        Example<Product> example = Example.of(filter.toBuilder().tenantId(TenantContext.current()).build(),
                 ExampleMatcher
                 .matching()
                 .withIgnoreCase()
                 .withIgnoreNullValues()
-                .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+                .withIgnorePaths("price")
+                .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING)
+                .withMatcher("tenantId", ExampleMatcher.GenericPropertyMatchers.exact().caseSensitive()));
 
         return repository.findAll(example, pageRequest);
     }
 
     @Override
     public Optional<Product> getByName(String name) {
-        return this.repository.findByName(name);
+        return cache.getByName(name, loader::findByName, this::loadById);
+    }
+
+    @Override
+    public List<Product> getByIds(Collection<Long> ids) {
+        return cache.getAllById(ids, missing -> repository.findAllById(missing).stream()
+                .filter(this::ofCurrentTenant)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Product> getWithVariants(Long id) {
+        return repository.findWithVariantsById(id).filter(this::ofCurrentTenant);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> findWithVariants(Product filter, Pageable pageRequest) {
+        Page<Product> page = find(filter, pageRequest);
+        // the first one loads the variants of the whole page through @BatchSize
+        page.forEach(product -> Hibernate.initialize(product.getVariants()));
+        return page;
+    }
+
+    @Override
+    @Transactional
+    public ProductVariant addVariant(Product product, ProductVariant variant) {
+        if (product == null || product.getId() == null){
+            throw new IllegalArgumentException("Product id cant be null");
+        }
+        variant.setProduct(repository.getOne(product.getId()));
+        return variantRepository.save(variant);
+    }
+
+    private Optional<Product> loadById(Long id) {
+        return loader.findById(id).filter(this::ofCurrentTenant);
+    }
+
+    private boolean ofCurrentTenant(Product product) {
+        return TenantContext.current().equals(product.getTenantId());
     }
 }
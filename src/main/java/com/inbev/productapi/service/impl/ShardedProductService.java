@@ -0,0 +1,313 @@
+package com.inbev.productapi.service.impl;
+
+import com.inbev.productapi.config.sharding.ProductShards;
+import com.inbev.productapi.config.sharding.ShardContext;
+import com.inbev.productapi.config.sharding.ShardDirectory;
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.exception.BusinessException;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.entity.ProductVariant;
+import com.inbev.productapi.service.ProductService;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Spreads the products over several databases.
+ *
+ * Every call of the delegate runs on a single shard: by id for direct access, on the home shard of the name
+ * for new products and on every shard in parallel for searches, whose pages are merged here. The parallel calls run
+ * for the tenant of the caller, names are located by tenant.
+ */
+public class ShardedProductService implements ProductService, AutoCloseable {
+
+    private final ProductService delegate;
+    private final ProductShards shards;
+    private final ShardDirectory directory;
+    private final ExecutorService fanOut;
+
+    public ShardedProductService(ProductService delegate, ProductShards shards, ShardDirectory directory) {
+        this.delegate = delegate;
+        this.shards = shards;
+        this.directory = directory;
+        int connections = 0;
+        for (int shard = 0; shard < shards.count(); shard++) {
+            connections += shards.get(shard).getMaximumPoolSize();
+        }
+        // as many concurrent shard queries as the pools can serve, fewer would queue requests behind each other
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(connections, connections, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "product-shard-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        this.fanOut = executor;
+    }
+
+    @Override
+    public Product save(Product product) {
+        if (product.getName() != null && locate(product.getName()).isPresent()) {
+            throw new BusinessException("Name already registered");
+        }
+        int shard = shards.homeShardForName(product.getName());
+        Product saved = ShardContext.call(shard, () -> delegate.save(product));
+        remember(saved, shard);
+        return saved;
+    }
+
+    @Override
+    public Optional<Product> getById(Long id) {
+        int shard = id == null ? -1 : shards.shardForId(id);
+        if (shard < 0) {
+            return Optional.empty();
+        }
+        return ShardContext.call(shard, () -> delegate.getById(id));
+    }
+
+    @Override
+    public void delete(Product product) {
+        int shard = owningShard(product);
+        if (shard < 0) {
+            delegate.delete(product);
+            return;
+        }
+        ShardContext.run(shard, () -> delegate.delete(product));
+        if (product.getName() != null) {
+            directory.remove(directoryKey(product.getName()));
+        }
+    }
+
+    @Override
+    public Product update(Product product) {
+        int shard = owningShard(product);
+        if (shard < 0) {
+            return delegate.update(product);
+        }
+        Product updated = ShardContext.call(shard, () -> delegate.update(product));
+        remember(updated, shard);
+        return updated;
+    }
+
+    /**
+     * Asks every shard for the first {@code offset + size} rows and merges them, deep pages get more
+     * expensive with the number of shards.
+     */
+    @Override
+    public Page<Product> find(Product filter, Pageable pageRequest) {
+        return findOnShards(filter, pageRequest, delegate::find);
+    }
+
+    private Page<Product> findOnShards(Product filter, Pageable pageRequest,
+                                       BiFunction<Product, Pageable, Page<Product>> finder) {
+        Sort sort = pageRequest.getSort().isSorted() ? pageRequest.getSort() : Sort.by("id");
+        Pageable perShard = pageRequest.isPaged()
+                ? PageRequest.of(0, (int) (pageRequest.getOffset() + pageRequest.getPageSize()), sort)
+                : Pageable.unpaged();
+
+        List<Page<Product>> pages = onShards(allShards(), shard -> finder.apply(filter, perShard));
+
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        List<Product> merged = pages.stream()
+                .flatMap(page -> page.getContent().stream())
+                .sorted(comparator(sort))
+                .collect(Collectors.toList());
+        if (pageRequest.isPaged()) {
+            merged = merged.stream()
+                    .skip(pageRequest.getOffset())
+                    .limit(pageRequest.getPageSize())
+                    .collect(Collectors.toList());
+        }
+        return new PageImpl<>(merged, pageRequest, total);
+    }
+
+    @Override
+    public Optional<Product> getByName(String name) {
+        return locate(name);
+    }
+
+    @Override
+    public List<Product> getByIds(Collection<Long> ids) {
+        Map<Integer, List<Long>> idsByShard = ids.stream()
+                .filter(id -> id != null && shards.shardForId(id) >= 0)
+                .distinct()
+                .collect(Collectors.groupingBy(shards::shardForId));
+        List<Integer> targets = new ArrayList<>(idsByShard.keySet());
+
+        Map<Long, Product> found = onShards(targets, shard -> delegate.getByIds(idsByShard.get(shard))).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream().distinct().map(found::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Product> getWithVariants(Long id) {
+        int shard = id == null ? -1 : shards.shardForId(id);
+        if (shard < 0) {
+            return Optional.empty();
+        }
+        return ShardContext.call(shard, () -> delegate.getWithVariants(id));
+    }
+
+    /**
+     * Variants live on the shard of their product, each shard loads those of its own rows.
+     */
+    @Override
+    public Page<Product> findWithVariants(Product filter, Pageable pageRequest) {
+        return findOnShards(filter, pageRequest, delegate::findWithVariants);
+    }
+
+    @Override
+    public ProductVariant addVariant(Product product, ProductVariant variant) {
+        int shard = owningShard(product);
+        if (shard < 0) {
+            return delegate.addVariant(product, variant);
+        }
+        return ShardContext.call(shard, () -> delegate.addVariant(product, variant));
+    }
+
+    @Override
+    public void close() {
+        fanOut.shutdownNow();
+    }
+
+    private Optional<Product> locate(String name) {
+        List<Integer> remaining = allShards();
+
+        String key = directoryKey(name);
+        Integer known = directory.get(key);
+        if (known != null) {
+            Optional<Product> product = ShardContext.call(known, () -> delegate.getByName(name));
+            if (product.isPresent()) {
+                return product;
+            }
+            directory.remove(key);
+            remaining.remove(known);
+        }
+
+        Integer home = shards.homeShardForName(name);
+        if (remaining.remove(home)) {
+            Optional<Product> product = ShardContext.call(home, () -> delegate.getByName(name));
+            if (product.isPresent()) {
+                directory.put(key, home);
+                return product;
+            }
+        }
+
+        List<Optional<Product>> found = onShards(remaining, shard -> delegate.getByName(name));
+        for (int i = 0; i < remaining.size(); i++) {
+            if (found.get(i).isPresent()) {
+                directory.put(key, remaining.get(i));
+                return found.get(i);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private int owningShard(Product product) {
+        if (product == null || product.getId() == null) {
+            return -1;
+        }
+        return shards.shardForId(product.getId());
+    }
+
+    private void remember(Product product, int shard) {
+        if (product != null && product.getName() != null) {
+            directory.put(directoryKey(product.getName()), shard);
+        }
+    }
+
+    private static String directoryKey(String name) {
+        return TenantContext.current() + " " + name;
+    }
+
+    private List<Integer> allShards() {
+        return IntStream.range(0, shards.count()).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Queries the first shard on the calling thread and the others on the fan-out pool.
+     */
+    private <T> List<T> onShards(List<Integer> targets, IntFunction<T> work) {
+        if (targets.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String tenant = TenantContext.current();
+        List<Future<T>> futures = new ArrayList<>();
+        for (Integer shard : targets.subList(1, targets.size())) {
+            futures.add(fanOut.submit(() -> TenantContext.call(tenant,
+                    () -> ShardContext.call(shard, () -> work.apply(shard)))));
+        }
+        List<T> results = new ArrayList<>();
+        int first = targets.get(0);
+        try {
+            results.add(ShardContext.call(first, () -> work.apply(first)));
+        } catch (RuntimeException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw ex;
+        }
+        for (Future<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying the shards", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * The getters of the sort properties are resolved once per query, not on every comparison.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Product> comparator(Sort sort) {
+        Comparator<Product> comparator = (first, second) -> 0;
+        for (Sort.Order order : sort) {
+            PropertyDescriptor property = BeanUtils.getPropertyDescriptor(Product.class, order.getProperty());
+            if (property == null || property.getReadMethod() == null) {
+                throw new IllegalArgumentException("Cannot sort products by " + order.getProperty());
+            }
+            Method getter = property.getReadMethod();
+            Comparator<Product> byProperty = Comparator.comparing(
+                    product -> (Comparable) ReflectionUtils.invokeMethod(getter, product),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator.thenComparing(Product::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+}
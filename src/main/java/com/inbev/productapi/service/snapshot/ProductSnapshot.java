@@ -0,0 +1,215 @@
+package com.inbev.productapi.service.snapshot;
+
+import com.inbev.productapi.model.entity.Product;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-only catalog memory-mapped from a file written by {@link ProductSnapshotWriter}. The records and both indexes
+ * live in the mapping, outside the heap: a lookup binary searches the index and only allocates the returned product.
+ *
+ * File layout, big endian:
+ * <pre>
+ * header   magic, format, count, name count, ids at, offsets at, names at (ints), created at (long)
+ * records  id, version (longs), price (double), name, description, brand, tenant (int length, -1 for null,
+ *          UTF-8 bytes)
+ * ids      record ids in ascending order (longs)
+ * offsets  record offset of each id (ints)
+ * names    hash of the tenant and name, record offset pairs in ascending hash order (ints)
+ * </pre>
+ * A snapshot is limited to 2 GB, the size of one mapping.
+ *
+ * The snapshot is reference counted: its owner holds one reference and each reader one more while it reads. The
+ * mapping is unmapped and the file deleted when the last reference is released, not when the garbage collector
+ * gets to the buffer.
+ */
+public final class ProductSnapshot {
+
+    static final int MAGIC = 0x50524F44;
+    static final int FORMAT = 2;
+    static final int HEADER_SIZE = 40;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int nameCount;
+    private final int idsAt;
+    private final int offsetsAt;
+    private final int namesAt;
+    private final long createdAt;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private ProductSnapshot(Path file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+            throw new IllegalStateException(file + " is not a product snapshot");
+        }
+        this.count = buffer.getInt(8);
+        this.nameCount = buffer.getInt(12);
+        this.idsAt = buffer.getInt(16);
+        this.offsetsAt = buffer.getInt(20);
+        this.namesAt = buffer.getInt(24);
+        this.createdAt = buffer.getLong(32);
+    }
+
+    public static ProductSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ProductSnapshot(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public Optional<Product> getById(long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long candidate = buffer.getLong(idsAt + middle * 8);
+            if (candidate < id) {
+                low = middle + 1;
+            } else if (candidate > id) {
+                high = middle - 1;
+            } else {
+                return Optional.of(read(buffer.getInt(offsetsAt + middle * 4)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<Product> getByName(String tenantId, String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        int hash = nameHash(tenantId, name);
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = nameCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getInt(namesAt + middle * 8) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        // names sharing the hash are next to each other
+        for (int entry = low; entry < nameCount && buffer.getInt(namesAt + entry * 8) == hash; entry++) {
+            int offset = buffer.getInt(namesAt + entry * 8 + 4);
+            if (nameEquals(offset, encoded)) {
+                Product product = read(offset);
+                if (product.getTenantId().equals(tenantId)) {
+                    return Optional.of(product);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    static int nameHash(String tenantId, String name) {
+        return 31 * tenantId.hashCode() + name.hashCode();
+    }
+
+    /**
+     * @return false when the snapshot is released already, the caller must read the current one instead
+     */
+    boolean acquire() {
+        while (true) {
+            int current = references.get();
+            if (current == 0) {
+                return false;
+            }
+            if (references.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases one reference, the last one unmaps the snapshot and deletes its file.
+     */
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            unmap(buffer);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Java 8 only unmaps through the cleaner of the buffer, without it the mapping lives until the buffer is collected.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            // left to the garbage collector
+        }
+    }
+
+    private boolean nameEquals(int offset, byte[] encoded) {
+        int at = offset + 24;
+        if (buffer.getInt(at) != encoded.length) {
+            return false;
+        }
+        for (int i = 0; i < encoded.length; i++) {
+            if (buffer.get(at + 4 + i) != encoded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Product read(int offset) {
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset);
+        return Product.builder()
+                .id(record.getLong())
+                .version(record.getLong())
+                .price(record.getDouble())
+                .name(readString(record))
+                .description(readString(record))
+                .brand(readString(record))
+                .tenantId(readString(record))
+                .build();
+    }
+
+    private static String readString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,140 @@
+package com.inbev.productapi.service.snapshot;
+
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the whole catalog to a {@link ProductSnapshot} file, reading it from the repository in keyset ordered
+ * chunks. Only the primitive index arrays are kept on the heap while writing.
+ */
+public class ProductSnapshotWriter {
+
+    private final ProductRepository repository;
+    private final int chunkSize;
+
+    public ProductSnapshotWriter(ProductRepository repository, int chunkSize) {
+        this.repository = repository;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return the new snapshot file in {@code directory}, complete once visible under its final name
+     */
+    public Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        long createdAt = System.currentTimeMillis();
+        Path temporary = Files.createTempFile(directory, "products-", ".tmp");
+        try {
+            writeTo(temporary, createdAt);
+            Path file = directory.resolve("products-" + createdAt + ".snap");
+            return Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void writeTo(Path file, long createdAt) throws IOException {
+        long[] ids = new long[1024];
+        int[] offsets = new int[1024];
+        long[] names = new long[1024];
+        int count = 0;
+        int nameCount = 0;
+        long position = ProductSnapshot.HEADER_SIZE;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024))) {
+            out.write(new byte[ProductSnapshot.HEADER_SIZE]);
+            long last = Long.MIN_VALUE;
+            List<Product> chunk;
+            do {
+                chunk = repository.findByIdGreaterThan(last, PageRequest.of(0, chunkSize, Sort.by("id")));
+                for (Product product : chunk) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                        offsets = Arrays.copyOf(offsets, count * 2);
+                    }
+                    ids[count] = product.getId();
+                    offsets[count] = checkedOffset(position);
+                    if (product.getName() != null) {
+                        if (nameCount == names.length) {
+                            names = Arrays.copyOf(names, nameCount * 2);
+                        }
+                        // sorting by hash then record index keeps the offsets recoverable from the index
+                        names[nameCount++] = ((long) ProductSnapshot.nameHash(product.getTenantId(), product.getName()) << 32)
+                                | count;
+                    }
+                    count++;
+                    position += writeRecord(out, product);
+                    last = product.getId();
+                }
+            } while (chunk.size() == chunkSize);
+
+            int idsAt = checkedOffset(position);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(ids[i]);
+            }
+            int offsetsAt = checkedOffset(position + count * 8L);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(offsets[i]);
+            }
+            int namesAt = checkedOffset(position + count * 12L);
+            Arrays.sort(names, 0, nameCount);
+            for (int i = 0; i < nameCount; i++) {
+                out.writeInt((int) (names[i] >> 32));
+                out.writeInt(offsets[(int) names[i]]);
+            }
+            checkedOffset(position + count * 12L + nameCount * 8L);
+            out.flush();
+
+            try (RandomAccessFile header = new RandomAccessFile(file.toFile(), "rw")) {
+                header.writeInt(ProductSnapshot.MAGIC);
+                header.writeInt(ProductSnapshot.FORMAT);
+                header.writeInt(count);
+                header.writeInt(nameCount);
+                header.writeInt(idsAt);
+                header.writeInt(offsetsAt);
+                header.writeInt(namesAt);
+                header.writeInt(0);
+                header.writeLong(createdAt);
+            }
+        }
+    }
+
+    private static int writeRecord(DataOutputStream out, Product product) throws IOException {
+        out.writeLong(product.getId());
+        out.writeLong(product.getVersion() == null ? 0 : product.getVersion());
+        out.writeDouble(product.getPrice());
+        return 24 + writeString(out, product.getName()) + writeString(out, product.getDescription())
+                + writeString(out, product.getBrand()) + writeString(out, product.getTenantId());
+    }
+
+    private static int writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return 4;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return 4 + bytes.length;
+    }
+
+    private static int checkedOffset(long position) {
+        if (position > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Catalog too large for a single snapshot file");
+        }
+        return (int) position;
+    }
+}
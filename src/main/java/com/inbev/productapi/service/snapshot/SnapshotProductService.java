@@ -0,0 +1,208 @@
+package com.inbev.productapi.service.snapshot;
+
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.exception.ReadOnlyCatalogException;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.entity.ProductVariant;
+import com.inbev.productapi.service.ProductService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Serves product lookups by id and name from a {@link ProductSnapshot}, searches go to the delegate.
+ *
+ * The snapshot is written once when the service is created and again every refresh interval, readers switch to the
+ * new one atomically. Lookups don't see writes made since the last refresh, and a failed refresh keeps the snapshot
+ * in use. Lookups hold a reference on the snapshot they read, the previous one is unmapped when the last finishes.
+ *
+ * The catalog is read-only in this mode: products looked up here are detached copies up to a refresh interval old,
+ * writing them back would fail on their version or miss the products created since, so writes are rejected.
+ */
+@Slf4j
+public class SnapshotProductService implements ProductService, AutoCloseable {
+
+    private final ProductService delegate;
+    private final ProductSnapshotWriter writer;
+    private final Path directory;
+    private final AtomicReference<ProductSnapshot> snapshot = new AtomicReference<>();
+    private final Timer refreshes;
+    private final ScheduledExecutorService refresher;
+
+    public SnapshotProductService(ProductService delegate, ProductSnapshotWriter writer, SnapshotProperties properties,
+                                  MeterRegistry registry) {
+        this.delegate = delegate;
+        this.writer = writer;
+        this.directory = Paths.get(properties.getDirectory());
+        this.refreshes = Timer.builder("product.snapshot.refresh")
+                .description("Time to write and open a new product snapshot")
+                .register(registry);
+        Gauge.builder("product.snapshot.size", snapshot, current -> current.get() == null ? 0 : current.get().size())
+                .description("Products in the snapshot serving lookups")
+                .register(registry);
+        deleteSnapshots();
+        refresh();
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getRefreshInterval().toNanos();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Writes a snapshot of the current catalog and swaps it in, releasing the previous one.
+     */
+    public void refresh() {
+        try {
+            ProductSnapshot next = refreshes.recordCallable(() -> ProductSnapshot.open(writer.write(directory)));
+            ProductSnapshot previous = snapshot.getAndSet(next);
+            if (previous != null) {
+                previous.release();
+            }
+            log.info("Serving {} products from snapshot {}", next.size(), next.getFile());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public ProductSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    @Override
+    public Optional<Product> getById(Long id) {
+        String tenant = TenantContext.current();
+        return read(current -> current.getById(id).filter(product -> tenant.equals(product.getTenantId())));
+    }
+
+    @Override
+    public Optional<Product> getByName(String name) {
+        String tenant = TenantContext.current();
+        return read(current -> current.getByName(tenant, name));
+    }
+
+    @Override
+    public List<Product> getByIds(Collection<Long> ids) {
+        String tenant = TenantContext.current();
+        return read(current -> {
+            List<Product> products = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                current.getById(id).filter(product -> tenant.equals(product.getTenantId())).ifPresent(products::add);
+            }
+            return products;
+        });
+    }
+
+    /**
+     * Reads the current snapshot, holding a reference so a concurrent refresh can't unmap it meanwhile.
+     */
+    private <T> T read(Function<ProductSnapshot, T> lookup) {
+        while (true) {
+            ProductSnapshot current = snapshot.get();
+            if (current.acquire()) {
+                try {
+                    return lookup.apply(current);
+                } finally {
+                    current.release();
+                }
+            }
+        }
+    }
+
+    @Override
+    public Product save(Product product) {
+        throw readOnly();
+    }
+
+    @Override
+    public void delete(Product product) {
+        throw readOnly();
+    }
+
+    @Override
+    public Product update(Product product) {
+        throw readOnly();
+    }
+
+    @Override
+    public Page<Product> find(Product filter, Pageable pageRequest) {
+        return delegate.find(filter, pageRequest);
+    }
+
+    @Override
+    public Optional<Product> getWithVariants(Long id) {
+        return delegate.getWithVariants(id);
+    }
+
+    @Override
+    public Page<Product> findWithVariants(Product filter, Pageable pageRequest) {
+        return delegate.findWithVariants(filter, pageRequest);
+    }
+
+    @Override
+    public ProductVariant addVariant(Product product, ProductVariant variant) {
+        throw readOnly();
+    }
+
+    private static ReadOnlyCatalogException readOnly() {
+        return new ReadOnlyCatalogException("Catalog is read-only on this instance");
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+        ProductSnapshot current = snapshot.getAndSet(null);
+        if (current != null) {
+            current.release();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException ex) {
+            log.warn("Product snapshot refresh failed, still serving {}", snapshot.get().getFile(), ex);
+        }
+    }
+
+    /**
+     * Snapshots left behind by a previous process, they are never reused.
+     */
+    private void deleteSnapshots() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "products-*.{snap,tmp}")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.inbev.productapi.service.snapshot;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("product.snapshot")
+public class SnapshotProperties {
+
+    /**
+     * Serves product lookups by id and name from a memory-mapped snapshot of the catalog instead of the database.
+     */
+    private boolean enabled = false;
+
+    private String directory = Paths.get(System.getProperty("java.io.tmpdir"), "product-snapshots").toString();
+
+    /**
+     * How often a new snapshot is written and swapped in, lookups don't see changes made since the last one.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    /**
+     * Products read from the database per query while writing a snapshot.
+     */
+    private int chunkSize = 1_000;
+}
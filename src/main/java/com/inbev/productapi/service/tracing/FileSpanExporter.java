@@ -0,0 +1,80 @@
+package com.inbev.productapi.service.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends the spans to a file as JSON lines, written out every second and on close.
+ */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+
+    private final BufferedWriter writer;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService flusher;
+
+    public FileSpanExporter(Path file, ObjectMapper objectMapper) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        this.objectMapper = objectMapper;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-span-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void export(Span span) {
+        try {
+            String line = objectMapper.writeValueAsString(span);
+            synchronized (writer) {
+                writer.write(line);
+                writer.newLine();
+            }
+        } catch (IOException ex) {
+            log.warn("Could not write span {} of trace {}: {}", span.getName(), span.getTraceId(), ex.getMessage());
+        }
+    }
+
+    public void flush() {
+        try {
+            synchronized (writer) {
+                writer.flush();
+            }
+        } catch (IOException ex) {
+            log.warn("Could not flush the spans: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        try {
+            synchronized (writer) {
+                writer.close();
+            }
+        } catch (IOException ex) {
+            log.warn("Could not close the span file: {}", ex.getMessage());
+        }
+    }
+}
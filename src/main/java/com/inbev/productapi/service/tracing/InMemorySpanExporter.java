@@ -0,0 +1,38 @@
+package com.inbev.productapi.service.tracing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent spans, for tests and for looking at a single instance.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final Deque<Span> spans = new ArrayDeque<>();
+    private final int maximumSize;
+
+    public InMemorySpanExporter(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public synchronized void export(Span span) {
+        if (spans.size() == maximumSize) {
+            spans.removeFirst();
+        }
+        spans.addLast(span);
+    }
+
+    /**
+     * @return the kept spans in the order they ended, children before their parent
+     */
+    public synchronized List<Span> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    public synchronized void clear() {
+        spans.clear();
+    }
+}
@@ -0,0 +1,120 @@
+package com.inbev.productapi.service.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Advice of {@code DataSource.getConnection}: connections taken inside a recorded trace time each statement they
+ * execute in a client span holding the SQL. Other connections are returned as they are.
+ */
+public class JdbcTracingInterceptor implements MethodInterceptor {
+
+    private final Supplier<Tracer> tracer;
+    private final int maxStatementLength;
+
+    public JdbcTracingInterceptor(Supplier<Tracer> tracer, int maxStatementLength) {
+        this.tracer = tracer;
+        this.maxStatementLength = maxStatementLength;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (!(result instanceof Connection) || tracer.get().current() == null) {
+            return result;
+        }
+        return proxy(Connection.class, result, new ConnectionHandler((Connection) result));
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(JdbcTracingInterceptor.class.getClassLoader(), new Class<?>[]{type},
+                handler));
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(target, method, args);
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            if (result instanceof CallableStatement) {
+                return proxy(CallableStatement.class, result, new StatementHandler((Statement) result, sql));
+            }
+            if (result instanceof PreparedStatement) {
+                return proxy(PreparedStatement.class, result, new StatementHandler((Statement) result, sql));
+            }
+            if (result instanceof Statement) {
+                return proxy(Statement.class, result, new StatementHandler((Statement) result, null));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return call(target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            try (Span span = tracer.get().startSpan("JDBC " + operation(sql), Span.Kind.CLIENT)) {
+                if (sql != null) {
+                    span.setAttribute("db.statement", sql.length() > maxStatementLength
+                            ? sql.substring(0, maxStatementLength) : sql);
+                }
+                if ("executeBatch".equals(method.getName())) {
+                    span.setAttribute("db.batch", true);
+                }
+                try {
+                    return call(target, method, args);
+                } catch (Throwable ex) {
+                    span.setError(ex);
+                    throw ex;
+                }
+            }
+        }
+
+        private String operation(String sql) {
+            if (sql == null) {
+                return "statement";
+            }
+            String trimmed = sql.trim();
+            int end = trimmed.indexOf(' ');
+            return (end < 0 ? trimmed : trimmed.substring(0, end)).toLowerCase(Locale.ROOT);
+        }
+    }
+}
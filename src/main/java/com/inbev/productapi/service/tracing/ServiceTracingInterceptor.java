@@ -0,0 +1,37 @@
+package com.inbev.productapi.service.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ClassUtils;
+
+import java.util.function.Supplier;
+
+/**
+ * Span around a service method, named after the service class so the decorators of the product service show as
+ * nested spans.
+ */
+public class ServiceTracingInterceptor implements MethodInterceptor {
+
+    private final Supplier<Tracer> tracer;
+
+    public ServiceTracingInterceptor(Supplier<Tracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Tracer current = tracer.get();
+        if (current.current() == null) {
+            return invocation.proceed();
+        }
+        String service = ClassUtils.getUserClass(invocation.getThis().getClass()).getSimpleName();
+        try (Span span = current.startSpan(service + "." + invocation.getMethod().getName(), Span.Kind.INTERNAL)) {
+            try {
+                return invocation.proceed();
+            } catch (Throwable ex) {
+                span.setError(ex);
+                throw ex;
+            }
+        }
+    }
+}
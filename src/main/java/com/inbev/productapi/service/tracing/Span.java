@@ -0,0 +1,122 @@
+package com.inbev.productapi.service.tracing;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timed operation of a trace, current on its thread until closed. Closing it exports it and makes its parent the
+ * current span again.
+ *
+ * Requests left out by sampling get {@link #NOOP}, which records nothing.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Span implements AutoCloseable {
+
+    public enum Kind {
+        SERVER, INTERNAL, CLIENT
+    }
+
+    static final Span NOOP = new Span();
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    @JsonIgnore
+    private final String traceState;
+    private String name;
+    private final Kind kind;
+    private final long startEpochMicros;
+    private long durationMicros;
+    private final Map<String, Object> attributes;
+    private boolean error;
+    @Getter(AccessLevel.NONE)
+    private final Span parent;
+    @Getter(AccessLevel.NONE)
+    private final Tracer tracer;
+    @Getter(AccessLevel.NONE)
+    private final long startNanos;
+
+    private Span() {
+        this.traceId = null;
+        this.spanId = null;
+        this.parentSpanId = null;
+        this.traceState = null;
+        this.kind = Kind.INTERNAL;
+        this.startEpochMicros = 0;
+        this.attributes = null;
+        this.parent = null;
+        this.tracer = null;
+        this.startNanos = 0;
+    }
+
+    Span(Tracer tracer, Span parent, String traceId, String parentSpanId, String traceState, String name, Kind kind) {
+        this.tracer = tracer;
+        this.parent = parent;
+        this.traceId = traceId;
+        this.spanId = TraceContext.newSpanId();
+        this.parentSpanId = parentSpanId;
+        this.traceState = traceState;
+        this.name = name;
+        this.kind = kind;
+        this.attributes = new LinkedHashMap<>();
+        this.startEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.startNanos = System.nanoTime();
+    }
+
+    @JsonIgnore
+    public boolean isRecording() {
+        return this != NOOP;
+    }
+
+    public Span setName(String name) {
+        if (isRecording()) {
+            this.name = name;
+        }
+        return this;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (isRecording()) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public Span setError(Throwable ex) {
+        if (isRecording()) {
+            error = true;
+            if (ex != null) {
+                attributes.put("exception.type", ex.getClass().getName());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the context to propagate to the next hop, this span being its parent
+     */
+    @JsonIgnore
+    public TraceContext getContext() {
+        return new TraceContext(traceId, spanId, true);
+    }
+
+    Span getParent() {
+        return parent;
+    }
+
+    @Override
+    public void close() {
+        if (!isRecording() || durationMicros != 0) {
+            return;
+        }
+        durationMicros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        tracer.end(this);
+    }
+}
@@ -0,0 +1,13 @@
+package com.inbev.productapi.service.tracing;
+
+/**
+ * Destination of the finished spans, called on the thread that ended them.
+ */
+public interface SpanExporter extends AutoCloseable {
+
+    void export(Span span);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,72 @@
+package com.inbev.productapi.service.tracing;
+
+import lombok.Value;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * W3C trace context: the trace id, the id of the parent span and the sampled flag carried by the traceparent header
+ * as {@code 00-<32 hex trace id>-<16 hex span id>-<2 hex flags>}.
+ */
+@Value
+public class TraceContext {
+
+    private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+    private static final String INVALID_SPAN_ID = "0000000000000000";
+
+    String traceId;
+    String spanId;
+    boolean sampled;
+
+    /**
+     * @return the context of the header, null when missing or malformed
+     */
+    public static TraceContext parse(String traceparent) {
+        if (traceparent == null) {
+            return null;
+        }
+        String value = traceparent.trim();
+        if (value.length() < 55 || value.charAt(2) != '-' || value.charAt(35) != '-' || value.charAt(52) != '-'
+                || (value.length() > 55 && value.charAt(55) != '-')) {
+            return null;
+        }
+        String version = value.substring(0, 2);
+        String traceId = value.substring(3, 35);
+        String spanId = value.substring(36, 52);
+        String flags = value.substring(53, 55);
+        if (!isHex(version) || "ff".equals(version) || ("00".equals(version) && value.length() != 55)
+                || !isHex(traceId) || INVALID_TRACE_ID.equals(traceId)
+                || !isHex(spanId) || INVALID_SPAN_ID.equals(spanId) || !isHex(flags)) {
+            return null;
+        }
+        return new TraceContext(traceId, spanId, (Integer.parseInt(flags, 16) & 1) == 1);
+    }
+
+    public String toTraceparent() {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return hex(random.nextLong() | 1L) + hex(random.nextLong());
+    }
+
+    static String newSpanId() {
+        return hex(ThreadLocalRandom.current().nextLong() | 1L);
+    }
+
+    private static String hex(long value) {
+        String digits = Long.toHexString(value);
+        return INVALID_SPAN_ID.substring(digits.length()) + digits;
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
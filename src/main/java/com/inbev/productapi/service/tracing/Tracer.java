@@ -0,0 +1,101 @@
+package com.inbev.productapi.service.tracing;
+
+import org.slf4j.MDC;
+
+/**
+ * Starts spans and tracks the current one of each thread.
+ *
+ * Only requests are sampled: a server span is recorded when the traceparent header says so, or for a share of the
+ * new traces decided on their trace id. Spans started outside a recorded server span are {@link Span#NOOP}, so
+ * requests left out cost a thread local read per instrumented call.
+ */
+public class Tracer {
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final SpanExporter exporter;
+    private final long sampleBound;
+
+    public Tracer(SpanExporter exporter, double sampleRatio) {
+        this.exporter = exporter;
+        this.sampleBound = sampleRatio >= 1 ? Long.MAX_VALUE : (long) (Math.max(0, sampleRatio) * Long.MAX_VALUE);
+    }
+
+    /**
+     * @return the current span of the thread, null outside a recorded trace
+     */
+    public Span current() {
+        return current.get();
+    }
+
+    /**
+     * Starts the span of a request, continuing the trace of its traceparent header if valid.
+     */
+    public Span startServerSpan(String name, String traceparent, String traceState) {
+        TraceContext incoming = TraceContext.parse(traceparent);
+        String traceId;
+        if (incoming != null) {
+            if (!incoming.isSampled()) {
+                return Span.NOOP;
+            }
+            traceId = incoming.getTraceId();
+        } else {
+            traceId = TraceContext.newTraceId();
+            if (!sampled(traceId)) {
+                return Span.NOOP;
+            }
+        }
+        Span span = new Span(this, current.get(), traceId, incoming == null ? null : incoming.getSpanId(),
+                incoming == null ? null : traceState, name, Span.Kind.SERVER);
+        begin(span);
+        return span;
+    }
+
+    /**
+     * Starts a child of the current span, or nothing when the thread isn't in a recorded trace.
+     */
+    public Span startSpan(String name, Span.Kind kind) {
+        Span parent = current.get();
+        if (parent == null) {
+            return Span.NOOP;
+        }
+        Span span = new Span(this, parent, parent.getTraceId(), parent.getSpanId(), parent.getTraceState(), name, kind);
+        begin(span);
+        return span;
+    }
+
+    void end(Span span) {
+        if (current.get() == span) {
+            restore(span.getParent());
+        }
+        exporter.export(span);
+    }
+
+    private void begin(Span span) {
+        current.set(span);
+        MDC.put("traceId", span.getTraceId());
+        MDC.put("spanId", span.getSpanId());
+    }
+
+    private void restore(Span parent) {
+        if (parent == null) {
+            current.remove();
+            MDC.remove("traceId");
+            MDC.remove("spanId");
+        } else {
+            current.set(parent);
+            MDC.put("spanId", parent.getSpanId());
+        }
+    }
+
+    /**
+     * Decides on the lower 63 bits of the trace id, like the trace id ratio sampler of OpenTelemetry, so every
+     * instance seeing the trace decides the same.
+     */
+    private boolean sampled(String traceId) {
+        if (sampleBound == Long.MAX_VALUE) {
+            return true;
+        }
+        long low = Long.parseUnsignedLong(traceId.substring(16), 16) & Long.MAX_VALUE;
+        return low < sampleBound;
+    }
+}
@@ -0,0 +1,28 @@
+package com.inbev.productapi.service.tracing;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+
+/**
+ * Adds a tracing advisor to the eligible beans, in front of their other advisors so the span includes the
+ * transaction. Beans are proxied by class and keep their type.
+ */
+public class TracingBeanPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+    private final String beanName;
+
+    /**
+     * @param beanName the only bean to advise, or null for every bean the advisor applies to
+     */
+    public TracingBeanPostProcessor(Advisor advisor, String beanName) {
+        this.advisor = advisor;
+        this.beanName = beanName;
+        setBeforeExistingAdvisors(true);
+        setProxyTargetClass(true);
+    }
+
+    @Override
+    protected boolean isEligible(Object bean, String beanName) {
+        return (this.beanName == null || this.beanName.equals(beanName)) && super.isEligible(bean, beanName);
+    }
+}
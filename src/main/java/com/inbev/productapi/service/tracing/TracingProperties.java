@@ -0,0 +1,35 @@
+package com.inbev.productapi.service.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("product.tracing")
+public class TracingProperties {
+
+    /**
+     * Traces requests with spans around the controller handler, the product service methods and the JDBC statements.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Share of the new traces recorded, requests carrying a traceparent header follow its sampled flag instead.
+     */
+    private double sampleRatio = 0.01;
+
+    /**
+     * JSON lines file the spans are appended to, kept in memory when not set. Define a {@link SpanExporter} bean to
+     * send them elsewhere.
+     */
+    private String file;
+
+    /**
+     * Most recent spans kept by the in-memory exporter.
+     */
+    private int maxSpansInMemory = 10_000;
+
+    /**
+     * SQL longer than this is cut in the span attributes.
+     */
+    private int maxStatementLength = 1_000;
+}
@@ -0,0 +1,99 @@
+package com.inbev.productapi.service.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Request counts per product id, the most requested ids are kept in a file across restarts so the next instance
+ * knows what to warm up.
+ */
+@Slf4j
+public class ProductAccessStats {
+
+    private final ConcurrentMap<Long, LongAdder> counts = new ConcurrentHashMap<>();
+    private final int maxTracked;
+    private final int topN;
+    private final Path file;
+
+    public ProductAccessStats(int maxTracked, int topN, Path file) {
+        this.maxTracked = maxTracked;
+        this.topN = topN;
+        this.file = file;
+    }
+
+    public void record(Long id) {
+        if (id == null) {
+            return;
+        }
+        LongAdder count = counts.get(id);
+        if (count == null) {
+            if (counts.size() >= maxTracked) {
+                return;
+            }
+            count = counts.computeIfAbsent(id, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * @return the n most requested ids, most requested first
+     */
+    public List<Long> top(int n) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<Long, LongAdder>comparingByValue(
+                        (first, second) -> Long.compare(second.sum(), first.sum())))
+                .limit(n)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the ids written by the previous run, empty when there is none
+     */
+    public List<Long> recorded() {
+        if (file == null || !Files.exists(file)) {
+            return Collections.emptyList();
+        }
+        try {
+            return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .map(Long::valueOf)
+                    .collect(Collectors.toList());
+        } catch (IOException | NumberFormatException ex) {
+            log.warn("Could not read the product access stats of {}", file, ex);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Forgets the counts, the warm-up requests must not look like real traffic.
+     */
+    public void clear() {
+        counts.clear();
+    }
+
+    public void close() {
+        List<Long> top = top(topN);
+        if (file == null || top.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, top.stream().map(String::valueOf).collect(Collectors.toList()), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            log.warn("Could not write the product access stats to {}", file, ex);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.inbev.productapi.service.warmup;
+
+import com.inbev.productapi.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Preloads the hot products into the product cache and sends requests to the product endpoints so a new instance
+ * has warm caches and a compiled request path before it reports ready.
+ */
+@Slf4j
+public class ProductWarmUp {
+
+    static final int BATCH_SIZE = 100;
+
+    /**
+     * Header carrying the marker of the warm-up requests, the marker is random so clients can't send it.
+     */
+    public static final String MARKER_HEADER = "X-Warm-Up";
+
+    private final ProductService service;
+    private final ProductAccessStats stats;
+    private final WarmUpProperties properties;
+    private final Timer duration;
+    private final String marker = UUID.randomUUID().toString();
+    private volatile boolean complete;
+
+    public ProductWarmUp(ProductService service, ProductAccessStats stats, WarmUpProperties properties,
+                         MeterRegistry registry) {
+        this.service = service;
+        this.stats = stats;
+        this.properties = properties;
+        this.duration = Timer.builder("product.warmup.duration")
+                .description("Time from application ready to the end of the warm-up")
+                .register(registry);
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return whether a request with this marker is one of the warm-up requests still running
+     */
+    public boolean isWarmUpRequest(String marker) {
+        return !complete && this.marker.equals(marker);
+    }
+
+    /**
+     * @param port local port of the web server, the request part is skipped when there is none
+     */
+    public void run(int port) {
+        long begin = System.nanoTime();
+        try {
+            List<Long> ids = hotIds();
+            preload(ids);
+            if (port > 0) {
+                exercise(port, ids);
+            }
+            log.info("Warm-up of {} products done in {} ms", ids.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+        } catch (RuntimeException ex) {
+            // a failed warm-up only costs latency, it must not keep the instance out of service
+            log.warn("Warm-up failed, reporting ready anyway", ex);
+        } finally {
+            duration.record(System.nanoTime() - begin, TimeUnit.NANOSECONDS);
+            stats.clear();
+            complete = true;
+        }
+    }
+
+    List<Long> hotIds() {
+        Set<Long> ids = new LinkedHashSet<>(properties.getProductIds());
+        ids.addAll(stats.recorded());
+        return ids.stream().limit(properties.getTopN()).collect(Collectors.toList());
+    }
+
+    private void preload(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            service.getByIds(ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE)));
+        }
+    }
+
+    private void exercise(int port, List<Long> ids) {
+        String base = "http://localhost:" + port + "/api/product";
+        List<String> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            batches.add(base + "/batch?ids=" + ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE)).stream()
+                    .map(String::valueOf).collect(Collectors.joining(",")));
+        }
+        long deadline = System.nanoTime() + properties.getTimeout().toNanos();
+        for (int i = 0; i < properties.getRequests() && System.nanoTime() < deadline; i++) {
+            if (ids.isEmpty() || i % 4 == 3) {
+                get(base + "?page=0&size=20", false);
+            } else if (i % 4 == 2) {
+                get(batches.get(i % batches.size()), false);
+            } else {
+                get(base + "/" + ids.get(i % ids.size()), i % 4 == 1);
+            }
+        }
+    }
+
+    private void get(String url, boolean gzip) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestProperty(MARKER_HEADER, marker);
+            if (gzip) {
+                connection.setRequestProperty("Accept-Encoding", "gzip");
+            }
+            int status = connection.getResponseCode();
+            // reading the body to the end lets the connection be reused
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (body != null) {
+                    byte[] buffer = new byte[8192];
+                    while (body.read(buffer) >= 0) {
+                        // discard
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Warm-up request to " + url + " failed", ex);
+        }
+    }
+}
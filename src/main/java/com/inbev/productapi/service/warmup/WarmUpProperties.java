@@ -0,0 +1,39 @@
+package com.inbev.productapi.service.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("product.warmup")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How many products are preloaded, configured ids first, then the most requested ones of the previous run.
+     */
+    private int topN = 100;
+
+    private List<Long> productIds = new ArrayList<>();
+
+    /**
+     * Where the most requested product ids are written on shutdown and read on startup, not kept when empty.
+     */
+    private String statsFile;
+
+    /**
+     * Distinct products counted, requests for products beyond it are not recorded.
+     */
+    private int maxTrackedProducts = 10_000;
+
+    /**
+     * Requests sent to the product endpoints after preloading, to get the request path compiled.
+     */
+    private int requests = 3_000;
+
+    private Duration timeout = Duration.ofSeconds(60);
+}
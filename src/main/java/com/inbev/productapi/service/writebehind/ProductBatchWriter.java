@@ -0,0 +1,55 @@
+package com.inbev.productapi.service.writebehind;
+
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.service.cache.ProductCache;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes queued updates in one transaction. The fields are copied onto the current rows, so an update wins over
+ * whatever was written since it was read instead of failing on its stale version.
+ */
+public class ProductBatchWriter {
+
+    private final ProductRepository repository;
+    private final ProductCache cache;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductBatchWriter(ProductRepository repository, ProductCache cache,
+                              PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.cache = cache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Updates of products deleted in the meantime are ignored.
+     */
+    public void write(Collection<Product> updates) {
+        transactionTemplate.execute(status -> {
+            Map<Long, Product> current = repository.findAllById(
+                    updates.stream().map(Product::getId).collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            for (Product update : updates) {
+                Product product = current.get(update.getId());
+                if (product == null) {
+                    continue;
+                }
+                cache.evict(product.detachedCopy());
+                product.setName(update.getName());
+                product.setDescription(update.getDescription());
+                product.setPrice(update.getPrice());
+                product.setBrand(update.getBrand());
+                cache.evict(product);
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package com.inbev.productapi.service.writebehind;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("product.write-behind")
+public class WriteBehindProperties {
+
+    /**
+     * Updates return once queued, they reach the database on the next flush.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Distinct products waiting for a flush, updates of other products wait for room up to offer-timeout.
+     */
+    private int capacity = 10_000;
+
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    /**
+     * Updates written per transaction.
+     */
+    private int maxBatchSize = 500;
+
+    private Duration offerTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Flushes an update may fail before it is dropped.
+     */
+    private int maxAttempts = 3;
+}
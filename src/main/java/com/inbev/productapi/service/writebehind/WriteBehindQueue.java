@@ -0,0 +1,239 @@
+package com.inbev.productapi.service.writebehind;
+
+import com.inbev.productapi.exception.ServiceOverloadedException;
+import com.inbev.productapi.model.entity.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Product updates waiting to be written, one per product id: a newer update of the same product replaces the queued
+ * one. A single thread flushes them in batches every flush interval.
+ *
+ * Producers block while the queue is full and fail with {@link ServiceOverloadedException} after the offer timeout.
+ * Closing the queue flushes what is left, updates still queued when the process dies are lost.
+ *
+ * An update failing max-attempts flushes is dropped: the caller got its success long before, so the loss is only
+ * reported by the product.write-behind.dropped counter, an error log and the drop listeners.
+ */
+@Slf4j
+public class WriteBehindQueue implements AutoCloseable {
+
+    private final Map<Long, Pending> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ProductBatchWriter writer;
+    private final WriteBehindProperties properties;
+    private final ScheduledExecutorService flusher;
+    private final Timer flushLatency;
+    private final Counter coalesced;
+    private final Counter dropped;
+    private final List<Consumer<Product>> dropListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    public WriteBehindQueue(ProductBatchWriter writer, WriteBehindProperties properties, MeterRegistry registry) {
+        this.writer = writer;
+        this.properties = properties;
+        Gauge.builder("product.write-behind.queue.depth", this, WriteBehindQueue::size)
+                .description("Products with an update waiting for a flush")
+                .register(registry);
+        this.flushLatency = Timer.builder("product.write-behind.flush.latency")
+                .description("Time to write one batch of updates")
+                .register(registry);
+        this.coalesced = Counter.builder("product.write-behind.coalesced")
+                .description("Updates replaced by a newer update of the same product before a flush")
+                .register(registry);
+        this.dropped = Counter.builder("product.write-behind.dropped")
+                .description("Updates given up after max-attempts failed flushes")
+                .register(registry);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toNanos();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Queues a copy of the product, replacing the queued update of the same product if any.
+     */
+    public void submit(Product product) {
+        Product copy = product.detachedCopy();
+        long remaining = properties.getOfferTimeout().toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("Write-behind queue is closed");
+                }
+                if (pending.containsKey(copy.getId())) {
+                    pending.put(copy.getId(), new Pending(copy));
+                    coalesced.increment();
+                    return;
+                }
+                if (pending.size() < properties.getCapacity()) {
+                    pending.put(copy.getId(), new Pending(copy));
+                    return;
+                }
+                if (remaining <= 0) {
+                    throw new ServiceOverloadedException("Too many pending product updates, retry later");
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while waiting to queue the product update");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param listener called from the flush thread with each update dropped
+     */
+    public void onDropped(Consumer<Product> listener) {
+        dropListeners.add(listener);
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes everything queued so far, in batches of max-batch-size. Failed updates queued again wait for the next one.
+     */
+    public void flush() {
+        int remaining = size();
+        while (remaining > 0) {
+            List<Pending> batch = take(Math.min(remaining, properties.getMaxBatchSize()));
+            if (batch.isEmpty()) {
+                return;
+            }
+            remaining -= batch.size();
+            write(batch);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.error("Write-behind flush failed", ex);
+        }
+    }
+
+    private List<Pending> take(int max) {
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Pending> batch = new ArrayList<>(Math.min(max, pending.size()));
+            Iterator<Pending> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < max) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        long begin = System.nanoTime();
+        try {
+            writer.write(batch.stream().map(update -> update.product).collect(Collectors.toList()));
+        } catch (RuntimeException batchFailure) {
+            // one bad update must not hold back the others, retry them one transaction each
+            log.warn("Write-behind batch of {} updates failed, writing them one by one", batch.size(), batchFailure);
+            for (Pending update : batch) {
+                try {
+                    writer.write(Collections.singletonList(update.product));
+                } catch (RuntimeException ex) {
+                    retryLater(update, ex);
+                }
+            }
+        } finally {
+            flushLatency.record(System.nanoTime() - begin, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void retryLater(Pending update, RuntimeException failure) {
+        if (update.attempts + 1 >= properties.getMaxAttempts() || closed) {
+            dropped.increment();
+            log.error("Dropping the update of product {} after {} attempts", update.product.getId(),
+                    update.attempts + 1, failure);
+            for (Consumer<Product> listener : dropListeners) {
+                try {
+                    listener.accept(update.product);
+                } catch (RuntimeException ex) {
+                    log.warn("Drop listener failed for product {}", update.product.getId(), ex);
+                }
+            }
+            return;
+        }
+        lock.lock();
+        try {
+            // a newer update queued meanwhile wins over the failed one
+            pending.putIfAbsent(update.product.getId(), new Pending(update.product, update.attempts + 1));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting updates and writes the queued ones before returning.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        lock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(properties.getFlushInterval().toMillis() + 30_000, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    private static class Pending {
+        final Product product;
+        final int attempts;
+
+        Pending(Product product) {
+            this(product, 0);
+        }
+
+        Pending(Product product, int attempts) {
+            this.product = product;
+            this.attempts = attempts;
+        }
+    }
+}
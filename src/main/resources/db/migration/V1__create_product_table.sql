@@ -0,0 +1,12 @@
+CREATE TABLE product (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name        VARCHAR(255),
+    description VARCHAR(255),
+    price       DOUBLE PRECISION NOT NULL,
+    brand       VARCHAR(255),
+    CONSTRAINT pk_product PRIMARY KEY (id),
+    CONSTRAINT uk_product_name UNIQUE (name)
+);
+
+-- name lookups (existsByName / findByName) are served by the unique constraint index
+CREATE INDEX idx_product_brand ON product (brand);
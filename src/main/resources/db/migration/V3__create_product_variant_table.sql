@@ -0,0 +1,15 @@
+CREATE TABLE product_variant (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    product_id  BIGINT NOT NULL,
+    sku         VARCHAR(64) NOT NULL,
+    description VARCHAR(255),
+    pack_size   INT NOT NULL,
+    price       DOUBLE PRECISION NOT NULL,
+    CONSTRAINT pk_product_variant PRIMARY KEY (id),
+    CONSTRAINT uk_product_variant_sku UNIQUE (sku),
+    -- variants go with their product, Hibernate never deletes them one by one
+    CONSTRAINT fk_product_variant_product FOREIGN KEY (product_id) REFERENCES product (id) ON DELETE CASCADE
+);
+
+-- variants are always read by product, for one product or a page of them
+CREATE INDEX idx_product_variant_product ON product_variant (product_id, pack_size);
@@ -0,0 +1,11 @@
+-- existing rows belong to the default tenant
+ALTER TABLE product ADD COLUMN tenant_id VARCHAR(32) DEFAULT 'default' NOT NULL;
+
+-- names are unique within a tenant, lookups by name are served by the constraint index
+ALTER TABLE product DROP CONSTRAINT uk_product_name;
+ALTER TABLE product ADD CONSTRAINT uk_product_tenant_name UNIQUE (tenant_id, name);
+
+-- every search is scoped to one tenant, the tenant leads each index so it never reads the rows of another one
+DROP INDEX idx_product_brand;
+CREATE INDEX idx_product_tenant_brand ON product (tenant_id, brand);
+CREATE INDEX idx_product_tenant_id ON product (tenant_id, id);
@@ -0,0 +1,208 @@
+package com.inbev.productapi.api.admission;
+
+import com.inbev.productapi.config.tenancy.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdmissionFilterTest {
+
+    AtomicInteger poolWaiters = new AtomicInteger();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Must answer 429 with Retry-After to clients over their limit")
+    public void rateLimitTest() throws Exception{
+        //given
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRead(new AdmissionProperties.Limit(1, 2));
+        properties.setApiKeys(new HashSet<>(Arrays.asList("batch-client", "storefront")));
+        AdmissionFilter filter = createFilter(properties);
+
+        //when
+        MockHttpServletResponse first = perform(filter, "GET", "/api/product/1", "batch-client");
+        MockHttpServletResponse second = perform(filter, "GET", "/api/product/1", "batch-client");
+        MockHttpServletResponse third = perform(filter, "GET", "/api/product/1", "batch-client");
+        MockHttpServletResponse otherClient = perform(filter, "GET", "/api/product/1", "storefront");
+
+        //then
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(third.getStatus()).isEqualTo(429);
+        assertThat(third.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(third.getContentAsString()).isEqualTo("{\"errors\":[\"Too many requests\"]}");
+        assertThat(otherClient.getStatus()).isEqualTo(200);
+        assertThat(registry.get("product.admission.rejected").tag("reason", "rate-limit").tag("class", "read").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must limit clients sending unregistered API keys by their remote address")
+    public void unregisteredKeyTest() throws Exception{
+        //given
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRead(new AdmissionProperties.Limit(1, 2));
+        AdmissionFilter filter = createFilter(properties);
+
+        //when
+        MockHttpServletResponse first = perform(filter, "GET", "/api/product/1", "random-1");
+        MockHttpServletResponse second = perform(filter, "GET", "/api/product/1", "random-2");
+        MockHttpServletResponse third = perform(filter, "GET", "/api/product/1", "random-3");
+
+        //then
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(third.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    @DisplayName("Must limit a remote address across the tenants its requests are sent for")
+    public void addressLimitTest() throws Exception{
+        //given
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRead(new AdmissionProperties.Limit(1, 2));
+        properties.setAddressLimitFactor(1.5);
+        properties.setApiKeys(new HashSet<>(Collections.singletonList("batch-client")));
+        AdmissionFilter filter = createFilter(properties);
+
+        //when
+        List<Integer> statuses = new ArrayList<>();
+        for (String tenant : Arrays.asList("br", "ar", "mx", "cl")) {
+            statuses.add(TenantContext.call(tenant, () -> {
+                try {
+                    return perform(filter, "GET", "/api/product/1", "batch-client").getStatus();
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }));
+        }
+
+        //then
+        assertThat(statuses).containsExactly(200, 200, 200, 429);
+    }
+
+    @Test
+    @DisplayName("Must give back the client token of a request rejected by the address limit")
+    public void addressLimitReleaseTest() throws Exception{
+        //given
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRead(new AdmissionProperties.Limit(1, 2));
+        properties.setAddressLimitFactor(0.5);
+        properties.setApiKeys(new HashSet<>(Collections.singletonList("batch-client")));
+        AdmissionFilter filter = createFilter(properties);
+
+        //when
+        MockHttpServletResponse first = perform(filter, "GET", "/api/product/1", "batch-client");
+        MockHttpServletResponse sameAddress = perform(filter, "GET", "/api/product/1", "batch-client");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/product/1");
+        request.addHeader("X-Api-Key", "batch-client");
+        request.setRemoteAddr("10.0.0.2");
+        MockHttpServletResponse otherAddress = new MockHttpServletResponse();
+        filter.doFilter(request, otherAddress, new MockFilterChain());
+
+        //then
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(sameAddress.getStatus()).isEqualTo(429);
+        assertThat(otherAddress.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Must admit the marked warm-up requests only")
+    public void warmUpTest() throws Exception{
+        //given
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRead(new AdmissionProperties.Limit(1, 1));
+        AdmissionFilter filter = new AdmissionFilter(new RateLimiter(properties), null,
+                new LoadShedder(properties.getShedding(), poolWaiters::get), properties,
+                new ClientIdentity(properties), request -> "marker".equals(request.getHeader("X-Warm-Up")), registry);
+        perform(filter, "GET", "/api/product/1", "client");
+
+        //when
+        MockHttpServletRequest warmUp = new MockHttpServletRequest("GET", "/api/product/1");
+        warmUp.addHeader("X-Warm-Up", "marker");
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(warmUp, admitted, new MockFilterChain());
+        MockHttpServletResponse local = perform(filter, "GET", "/api/product/1", "client");
+
+        //then
+        assertThat(admitted.getStatus()).isEqualTo(200);
+        assertThat(local.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    @DisplayName("Must shed bulk requests before reads when the pool is saturated")
+    public void sheddingTest() throws Exception{
+        //given
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getShedding().setPoolWaitThreshold(4);
+        AdmissionFilter filter = createFilter(properties);
+        poolWaiters.set(4);
+
+        //when
+        MockHttpServletResponse batch = perform(filter, "GET", "/api/product/batch", "client");
+        MockHttpServletResponse bigPage = perform(filter, "GET", "/api/product?size=500", "client");
+        MockHttpServletResponse write = perform(filter, "PUT", "/api/product/1", "client");
+        MockHttpServletResponse read = perform(filter, "GET", "/api/product/1", "client");
+
+        //then
+        assertThat(batch.getStatus()).isEqualTo(503);
+        assertThat(batch.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(bigPage.getStatus()).isEqualTo(503);
+        assertThat(write.getStatus()).isEqualTo(200);
+        assertThat(read.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Must shed when the average latency is over the threshold")
+    public void latencySheddingTest() throws Exception{
+        //given
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getShedding().setLatencyThreshold(Duration.ofMillis(10));
+        LoadShedder shedder = new LoadShedder(properties.getShedding(), poolWaiters::get);
+
+        //when
+        for (int i = 0; i < 100; i++) {
+            shedder.record(Duration.ofMillis(16).toNanos());
+        }
+
+        //then
+        assertThat(shedder.shouldShed(RequestClass.BULK)).isTrue();
+        assertThat(shedder.shouldShed(RequestClass.WRITE)).isTrue();
+        assertThat(shedder.shouldShed(RequestClass.READ)).isFalse();
+    }
+
+    private AdmissionFilter createFilter(AdmissionProperties properties) {
+        return new AdmissionFilter(new RateLimiter(properties),
+                new RateLimiter(properties, properties.getAddressLimitFactor()),
+                new LoadShedder(properties.getShedding(), poolWaiters::get), properties,
+                new ClientIdentity(properties), request -> false, registry);
+    }
+
+    private MockHttpServletResponse perform(AdmissionFilter filter, String method, String uri, String apiKey)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        int query = uri.indexOf('?');
+        if (query > 0) {
+            request.setRequestURI(uri.substring(0, query));
+            request.setQueryString(uri.substring(query + 1));
+            request.addParameter(uri.substring(query + 1).split("=")[0], uri.substring(query + 1).split("=")[1]);
+        }
+        request.addHeader("X-Api-Key", apiKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
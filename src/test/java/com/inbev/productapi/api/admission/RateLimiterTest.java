@@ -0,0 +1,53 @@
+package com.inbev.productapi.api.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest {
+
+    @Test
+    @DisplayName("Must admit a burst, then one request per interval")
+    public void burstTest(){
+        //given
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRead(new AdmissionProperties.Limit(10, 3));
+        RateLimiter limiter = new RateLimiter(properties);
+        long now = 1_000_000L;
+
+        //when
+        long first = limiter.tryAcquire("client", RequestClass.READ, now);
+        long second = limiter.tryAcquire("client", RequestClass.READ, now);
+        long third = limiter.tryAcquire("client", RequestClass.READ, now);
+        long fourth = limiter.tryAcquire("client", RequestClass.READ, now);
+        long afterInterval = limiter.tryAcquire("client", RequestClass.READ, now + TimeUnit.MILLISECONDS.toNanos(100));
+
+        //then
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isZero();
+        assertThat(fourth).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(afterInterval).isZero();
+    }
+
+    @Test
+    @DisplayName("Must limit clients and request classes separately")
+    public void separateBucketsTest(){
+        //given
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setBulk(new AdmissionProperties.Limit(1, 1));
+        RateLimiter limiter = new RateLimiter(properties);
+        long now = -5L;
+
+        //when
+        limiter.tryAcquire("batch-client", RequestClass.BULK, now);
+
+        //then
+        assertThat(limiter.tryAcquire("batch-client", RequestClass.BULK, now)).isPositive();
+        assertThat(limiter.tryAcquire("batch-client", RequestClass.READ, now)).isZero();
+        assertThat(limiter.tryAcquire("storefront", RequestClass.BULK, now)).isZero();
+    }
+}
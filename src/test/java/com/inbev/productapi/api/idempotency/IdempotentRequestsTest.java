@@ -0,0 +1,121 @@
+package com.inbev.productapi.api.idempotency;
+
+import com.inbev.productapi.exception.BusinessException;
+import com.inbev.productapi.exception.IdempotencyConflictException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class IdempotentRequestsTest {
+
+    IdempotentRequests requests = new IdempotentRequests(new IdempotencyProperties());
+
+    @Test
+    @DisplayName("Must run concurrent duplicates once and give all of them the same result")
+    public void concurrentDuplicatesTest() throws Exception{
+        //given
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return requests.execute("POST key-1", "corona", () -> {
+                    runs.incrementAndGet();
+                    sleep(50);
+                    return "created " + runs.get();
+                });
+            }));
+        }
+        start.countDown();
+
+        //then
+        for (Future<String> result : results) {
+            assertThat(result.get()).isEqualTo("created 1");
+        }
+        assertThat(runs.get()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Must replay business errors and rerun after other failures")
+    public void failuresTest(){
+        //given
+        AtomicInteger runs = new AtomicInteger();
+
+        //when
+        Throwable first = catchThrowable(() -> requests.execute("POST key-2", "corona", () -> {
+            runs.incrementAndGet();
+            throw new BusinessException("Name already registered");
+        }));
+        Throwable replayed = catchThrowable(() -> requests.execute("POST key-2", "corona", runs::incrementAndGet));
+        catchThrowable(() -> requests.execute("POST key-3", "corona", () -> {
+            throw new IllegalStateException("connection reset");
+        }));
+        Integer retried = requests.execute("POST key-3", "corona", runs::incrementAndGet);
+
+        //then
+        assertThat(replayed).isSameAs(first);
+        assertThat(retried).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Must reject a key reused for another request or still in progress")
+    public void conflictTest() throws Exception{
+        //given
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setWaitTimeout(Duration.ofMillis(20));
+        IdempotentRequests requests = new IdempotentRequests(properties);
+        requests.execute("POST key-4", "corona", () -> "created");
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> requests.execute("POST key-5", "corona", () -> {
+            running.countDown();
+            await(release);
+            return "created";
+        }));
+        running.await();
+
+        //when
+        Throwable reused = catchThrowable(() -> requests.execute("POST key-4", "stella", () -> "created"));
+        Throwable inProgress = catchThrowable(() -> requests.execute("POST key-5", "corona", () -> "created"));
+
+        //then
+        assertThat(reused).isInstanceOf(IdempotencyConflictException.class);
+        assertThat(inProgress).isInstanceOf(IdempotencyConflictException.class)
+                .hasMessageContaining("in progress");
+        release.countDown();
+        executor.shutdown();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.inbev.productapi.api.recording;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrafficRecordingFilterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Must record requests as one replayable line each, with their tenant but no other header")
+    public void recordTest() throws Exception {
+        //given
+        Path file = directory.resolve("traffic.log");
+        TrafficRecordingFilter filter = new TrafficRecordingFilter(file, "X-Tenant-Id", 1.0, 64);
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/product");
+        get.setQueryString("brand=Ambev&size=20");
+        get.addHeader("X-Api-Key", "secret");
+        get.addHeader("X-Tenant-Id", "br");
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/product");
+        post.setContent("{\n  \"name\": \"Skol\"\n}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletRequest large = new MockHttpServletRequest("PUT", "/api/product/1");
+        large.setContent(new byte[65]);
+
+        //when
+        for (MockHttpServletRequest request : new MockHttpServletRequest[]{get, post, large}) {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new ReadingServlet()));
+        }
+        filter.close();
+
+        //then
+        assertThat(Files.readAllLines(file)).containsExactly(
+                "@br GET /api/product?brand=Ambev&size=20",
+                "POST /api/product {   \"name\": \"Skol\" }");
+    }
+
+    @Test
+    @DisplayName("Must write the recorded requests out while the application runs")
+    public void periodicFlushTest() throws Exception {
+        //given
+        Path file = directory.resolve("traffic.log");
+        TrafficRecordingFilter filter = new TrafficRecordingFilter(file, "X-Tenant-Id", 1.0, 64);
+
+        //when
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/product/1"), new MockHttpServletResponse(),
+                new MockFilterChain(new ReadingServlet()));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (Files.size(file) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+
+        //then
+        try {
+            assertThat(Files.readAllLines(file)).containsExactly("GET /api/product/1");
+        } finally {
+            filter.close();
+        }
+    }
+
+    /**
+     * Reads the body like a controller taking a request body.
+     */
+    static class ReadingServlet extends HttpServlet {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response)
+                throws IOException {
+            StreamUtils.copyToByteArray(request.getInputStream());
+        }
+    }
+}
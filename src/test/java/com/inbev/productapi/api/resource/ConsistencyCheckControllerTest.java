@@ -0,0 +1,75 @@
+package com.inbev.productapi.api.resource;
+
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.service.consistency.ConsistencyCheckProperties;
+import com.inbev.productapi.service.consistency.ProductConsistencyChecker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = ConsistencyCheckController.class, properties = {
+        "product.consistency.enabled=true",
+        "product.consistency.admin-key=s3cret"
+})
+@AutoConfigureMockMvc
+public class ConsistencyCheckControllerTest {
+
+    static String CHECKS_API = "/api/admin/consistency-checks";
+
+    @Autowired
+    MockMvc mvc;
+    @MockBean
+    ProductConsistencyChecker checker;
+
+    @Test
+    @DisplayName("Must refuse the consistency checks to callers without the admin key")
+    public void adminKeyTest() throws Exception {
+        //when
+        mvc.perform(MockMvcRequestBuilders.post(CHECKS_API))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("errors[0]").value("Admin key required"));
+        mvc.perform(MockMvcRequestBuilders.get(CHECKS_API + "/1").header("X-Admin-Key", "guess"))
+                .andExpect(status().isForbidden());
+
+        //then
+        Mockito.verifyNoInteractions(checker);
+    }
+
+    @Test
+    @DisplayName("Must look up the checks of the tenant of the request only")
+    public void tenantTest() throws Exception {
+        //given
+        BDDMockito.given(checker.get(TenantContext.DEFAULT_TENANT, "1")).willReturn(Optional.empty());
+
+        //when
+        mvc.perform(MockMvcRequestBuilders.get(CHECKS_API + "/1").header("X-Admin-Key", "s3cret"))
+                .andExpect(status().isNotFound());
+
+        //then
+        Mockito.verify(checker).get(TenantContext.DEFAULT_TENANT, "1");
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(ConsistencyCheckProperties.class)
+    static class Properties {
+    }
+}
@@ -1,9 +1,12 @@
 package com.inbev.productapi.api.resource;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.inbev.productapi.api.dto.ProductDTO;
+import com.inbev.productapi.api.dto.ProductVariantDTO;
 import com.inbev.productapi.exception.BusinessException;
 import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.entity.ProductVariant;
 import com.inbev.productapi.service.ProductService;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
@@ -18,7 +21,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -28,8 +33,11 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import java.util.Arrays;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -72,6 +80,58 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("price").value(createNewProductDTO().getPrice()));
     }
 
+    @Test
+    @DisplayName("Must return the stored result when a create is retried with the same Idempotency-Key")
+    public void createProductIdempotentTest() throws Exception{
+        //given
+        Product savedproduct = Product.builder().id(102L).name("Artur").description("test").brand("corona").price(10.15).build();
+        BDDMockito.given(service.save(Mockito.any(Product.class))).willReturn(savedproduct);
+        String json = new ObjectMapper().writeValueAsString(createNewProductDTO());
+
+        //when
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(PRODUCT_API)
+                .header("Idempotency-Key", "a4f9c5c2-create")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+        mvc.perform(request).andExpect(status().isCreated());
+        BDDMockito.given(service.save(Mockito.any(Product.class))).willThrow(new BusinessException("Name already registered"));
+
+        //then
+        mvc.perform(request)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("id").value(102));
+        Mockito.verify(service, Mockito.times(1)).save(Mockito.any(Product.class));
+    }
+
+    @Test
+    @DisplayName("Must not replay the result of another client that used the same Idempotency-Key")
+    public void createProductIdempotentPerClientTest() throws Exception{
+        //given
+        Product savedproduct = Product.builder().id(103L).name("Artur").description("test").brand("corona").price(10.15).build();
+        BDDMockito.given(service.save(Mockito.any(Product.class))).willReturn(savedproduct);
+        String json = new ObjectMapper().writeValueAsString(createNewProductDTO());
+
+        //when
+        for (String address : Arrays.asList("10.0.0.1", "10.0.0.2")) {
+            mvc.perform(MockMvcRequestBuilders
+                    .post(PRODUCT_API)
+                    .header("Idempotency-Key", "a4f9c5c2-shared")
+                    .with(request -> {
+                        request.setRemoteAddr(address);
+                        return request;
+                    })
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .content(json))
+                    .andExpect(status().isCreated());
+        }
+
+        //then
+        Mockito.verify(service, Mockito.times(2)).save(Mockito.any(Product.class));
+    }
+
     @Test
     @DisplayName("Must throw an error when trying to create an incomplete product")
     public void createInvalidProductTest() throws Exception{
@@ -151,7 +211,8 @@ public class ProductControllerTest {
 
         //then
         mvc.perform(request)
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("errors[0]").value("Product not found"));
     }
     @Test
     @DisplayName("must get information from a product by name")
@@ -256,6 +317,35 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("brand").value(createNewProductDTO().getBrand()))
                 .andExpect(jsonPath("price").value(createNewProductDTO().getPrice()));
     }
+    @Test
+    @DisplayName("Must retry an update once on a fresh copy after a version conflict")
+    public  void updateStaleProductTest() throws Exception{
+        //given
+        Long id = 11L;
+        String json = new ObjectMapper().writeValueAsString(createNewProductDTO());
+        Product stale = Product.builder().id(id).version(1L).name("some title").build();
+        Product fresh = Product.builder().id(id).version(2L).name("some title").build();
+        BDDMockito.given(service.getById(id))
+                .willReturn(Optional.of(stale), Optional.of(fresh));
+        BDDMockito.given(service.update(stale))
+                .willThrow(new ObjectOptimisticLockingFailureException(Product.class, id));
+        BDDMockito.given(service.update(fresh))
+                .willReturn(fresh);
+
+        //when
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(PRODUCT_API.concat("/" + id))
+                .content(json)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        //then
+        mvc.perform(request)
+                .andExpect( status().isOk())
+                .andExpect(jsonPath("name").value(createNewProductDTO().getName()));
+        Mockito.verify(service, Mockito.times(2)).getById(id);
+    }
+
     @Test
     @DisplayName("Must return resourc not found when try update a non-existent product")
     public  void updateNonexistentProductTest() throws Exception{
@@ -276,6 +366,169 @@ public class ProductControllerTest {
                 .andExpect( status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Must send the pre-gzipped body to clients accepting gzip")
+    public void getGzippedProductTest() throws Exception{
+        //given
+        Long id = 11L;
+        char[] description = new char[2048];
+        Arrays.fill(description, 'a');
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(Product.builder()
+                .id(id)
+                .version(1L)
+                .name(createNewProductDTO().getName())
+                .description(new String(description))
+                .brand(createNewProductDTO().getBrand())
+                .price(createNewProductDTO().getPrice())
+                .build()));
+
+        //when
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(PRODUCT_API.concat("/" + id))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                .accept(MediaType.APPLICATION_JSON);
+
+        //then
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("Must return a product with all its variants")
+    public void getProductWithVariantsTest() throws Exception{
+        //given
+        Long id = 12L;
+        Product product = Product.builder().id(id).name("corona").description("lager").brand("ambev").price(5.0)
+                .variants(Arrays.asList(
+                        ProductVariant.builder().id(1L).sku("COR-1").packSize(1).price(5.0).build(),
+                        ProductVariant.builder().id(2L).sku("COR-6").packSize(6).price(27.0).build()))
+                .build();
+        BDDMockito.given(service.getWithVariants(id)).willReturn(Optional.of(product));
+
+        //when
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(PRODUCT_API.concat("/" + id + "/variants"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        //then
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("id").value(id))
+                .andExpect(jsonPath("variants", hasSize(2)))
+                .andExpect(jsonPath("variants[1].sku").value("COR-6"))
+                .andExpect(jsonPath("variants[1].packSize").value(6));
+    }
+
+    @Test
+    @DisplayName("Must add a bundle to a product")
+    public void addVariantTest() throws Exception{
+        //given
+        Long id = 13L;
+        Product product = Product.builder().id(id).name("corona").price(5.0).build();
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(product));
+        BDDMockito.given(service.addVariant(Mockito.eq(product), Mockito.any(ProductVariant.class)))
+                .willAnswer(invocation -> ((ProductVariant) invocation.getArgument(1)).toBuilder().id(3L).build());
+        String json = new ObjectMapper().writeValueAsString(
+                ProductVariantDTO.builder().sku("COR-12").packSize(12).price(50.0).build());
+
+        //when
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(PRODUCT_API.concat("/" + id + "/variants"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        //then
+        mvc.perform(request)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("id").value(3))
+                .andExpect(jsonPath("packSize").value(12));
+    }
+
+    @Test
+    @DisplayName("Must filter products")
+    public void findProductsTest() throws Exception{
+        //given
+        Long id = 11L;
+        Product product = Product.builder()
+                .id(id)
+                .name(createNewProductDTO().getName())
+                .description(createNewProductDTO().getDescription())
+                .brand(createNewProductDTO().getBrand())
+                .price(createNewProductDTO().getPrice())
+                .build();
+        BDDMockito.given(service.find(Mockito.any(Product.class), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Product>(Arrays.asList(product), PageRequest.of(0, 100), 1));
+
+        //when
+        String queryString = String.format("?name=%s&brand=%s&page=0&size=100",
+                product.getName(), product.getBrand());
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(PRODUCT_API.concat(queryString))
+                .accept(MediaType.APPLICATION_JSON);
+
+        //then
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("totalElements").value(1))
+                .andExpect(jsonPath("pageable.pageSize").value(100))
+                .andExpect(jsonPath("pageable.pageNumber").value(0));
+    }
+
+    @Test
+    @DisplayName("Must get several products at once")
+    public void getProductsBatchTest() throws Exception{
+        //given
+        BDDMockito.given(service.getByIds(Arrays.asList(11L, 12L))).willReturn(Arrays.asList(
+                Product.builder().id(11L).name("corona").build(),
+                Product.builder().id(12L).name("budweiser").build()));
+
+        //when
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(PRODUCT_API.concat("/batch?ids=11,12"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        //then
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("[0].name").value("corona"))
+                .andExpect(jsonPath("[1].name").value("budweiser"));
+    }
+
+    @Test
+    @DisplayName("Must encode a product as CBOR when the client asks for it")
+    public void getProductAsCborTest() throws Exception{
+        //given
+        Long id = 11L;
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(Product.builder()
+                .id(id)
+                .name(createNewProductDTO().getName())
+                .description(createNewProductDTO().getDescription())
+                .brand(createNewProductDTO().getBrand())
+                .price(createNewProductDTO().getPrice())
+                .build()));
+
+        //when
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(PRODUCT_API.concat("/" + id))
+                .accept(MediaType.APPLICATION_CBOR);
+        byte[] body = mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        //then
+        ProductDTO dto = new ObjectMapper(new CBORFactory()).readValue(body, ProductDTO.class);
+        assertThat(dto.getId()).isEqualTo(id);
+        assertThat(dto.getName()).isEqualTo(createNewProductDTO().getName());
+        assertThat(dto.getPrice()).isEqualTo(createNewProductDTO().getPrice());
+    }
+
     private ProductDTO createNewProductDTO() {
         return ProductDTO.builder().name("Artur").price(10.15).description("test").brand("corona").build();
     }
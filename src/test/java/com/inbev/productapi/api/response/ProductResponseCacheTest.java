@@ -0,0 +1,89 @@
+package com.inbev.productapi.api.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbev.productapi.model.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProductResponseCacheTest {
+
+    ProductResponseCache cache;
+
+    @BeforeEach
+    public void setUp(){
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setGzipMinSize(100);
+        cache = new ProductResponseCache(new ObjectMapper(), new ModelMapper(), properties);
+    }
+
+    @Test
+    @DisplayName("Must reuse the serialized body while the product version doesn't change")
+    public void sameVersionTest(){
+        //given
+        Product product = createProduct(1L);
+
+        //when
+        byte[] first = cache.json(product, false).getBody();
+        byte[] second = cache.json(product.toBuilder().build(), false).getBody();
+
+        //then
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Must serialize the product again when its version changes")
+    public void newVersionTest(){
+        //given
+        Product product = createProduct(1L);
+        byte[] first = cache.json(product, false).getBody();
+
+        //when
+        Product updated = product.toBuilder().name("corona extra").version(2L).build();
+        byte[] second = cache.json(updated, false).getBody();
+
+        //then
+        assertThat(second).isNotSameAs(first);
+        assertThat(new String(second)).contains("corona extra");
+    }
+
+    @Test
+    @DisplayName("Must gzip large bodies for clients accepting it")
+    public void gzipTest() throws Exception{
+        //given
+        Product product = createProduct(1L);
+        byte[] json = cache.json(product, false).getBody();
+
+        //when
+        PreSerializedResponse response = cache.json(product, true);
+
+        //then
+        assertThat(response.isGzipped()).isTrue();
+        byte[] unzipped = StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(response.getBody())));
+        assertThat(unzipped).isEqualTo(json);
+    }
+
+    @Test
+    @DisplayName("Must only serve pre-serialized JSON when JSON is the preferred format")
+    public void servesJsonTest(){
+        assertThat(cache.servesJson(Collections.emptyList())).isTrue();
+        assertThat(cache.servesJson(Arrays.asList(MediaType.ALL))).isTrue();
+        assertThat(cache.servesJson(Arrays.asList(MediaType.APPLICATION_CBOR))).isFalse();
+        assertThat(cache.servesJson(MediaType.parseMediaTypes("application/json;q=0.5, application/cbor"))).isFalse();
+    }
+
+    private Product createProduct(Long id) {
+        return Product.builder().id(id).version(1L).name("corona").brand("ambev").price(10.0)
+                .description("Mexican pale lager brewed since 1925, served with a slice of lime").build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.inbev.productapi.benchmark;
+
+import com.inbev.productapi.api.admission.AdmissionFilter;
+import com.inbev.productapi.api.admission.AdmissionProperties;
+import com.inbev.productapi.api.admission.ClientIdentity;
+import com.inbev.productapi.api.admission.LoadShedder;
+import com.inbev.productapi.api.admission.RateLimiter;
+import com.inbev.productapi.api.admission.RequestClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Overhead of admission control per request: the bare limiter from one and from several threads, and the whole
+ * filter around an empty chain.
+ */
+public class AdmissionBenchmark {
+
+    static final long WARMUP_NANOS = 1_000_000_000L;
+    static final long MEASURE_NANOS = 1_000_000_000L;
+    static final int CLIENTS = 1024;
+    static final int THREADS = 8;
+
+    @Test
+    @DisplayName("Limiter and filter overhead per request")
+    public void overhead() throws Exception {
+        AdmissionProperties properties = new AdmissionProperties();
+        // limits high enough that every request is admitted, rejections are cheaper than admissions
+        properties.setRead(new AdmissionProperties.Limit(1e9, 1_000_000));
+        RateLimiter limiter = new RateLimiter(properties);
+        String[] clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+
+        BenchmarkReport report = new BenchmarkReport("admission");
+        report.line("%-34s %10s", "path", "ns/op");
+        double single = nanosPerOp(1, i -> limiter.tryAcquire(clients[i & (CLIENTS - 1)], RequestClass.READ));
+        report.line("%-34s %10.0f", "limiter, 1 thread", single);
+        double contended = nanosPerOp(THREADS, i -> limiter.tryAcquire(clients[i & 7], RequestClass.READ));
+        report.line("%-34s %10.0f", "limiter, " + THREADS + " threads, 8 clients", contended);
+
+        AdmissionFilter filter = new AdmissionFilter(limiter, null, new LoadShedder(properties.getShedding(), () -> 0),
+                properties, new ClientIdentity(properties), request -> false, new SimpleMeterRegistry());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/product/1");
+        request.addHeader("X-Api-Key", "storefront");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (servletRequest, servletResponse) -> { };
+        double whole = nanosPerOp(1, i -> {
+            filter.doFilter(request, response, chain);
+            return response.getStatus();
+        });
+        report.line("%-34s %10.0f", "filter, 1 thread", whole);
+        report.write();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(whole).isLessThan(TimeUnit.MICROSECONDS.toNanos(5));
+    }
+
+    private static double nanosPerOp(int threads, Operation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    int i = 0;
+                    long end = System.nanoTime() + WARMUP_NANOS;
+                    while (System.nanoTime() < end) {
+                        operation.run(i++);
+                    }
+                    long operations = 0;
+                    end = System.nanoTime() + MEASURE_NANOS;
+                    while (System.nanoTime() < end) {
+                        operation.run(i++);
+                        operations++;
+                    }
+                    return operations;
+                }));
+            }
+            long operations = 0;
+            for (Future<Long> result : results) {
+                operations += result.get();
+            }
+            // average latency seen by each thread
+            return (double) MEASURE_NANOS * threads / operations;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    interface Operation {
+        Object run(int i) throws Exception;
+    }
+}
@@ -0,0 +1,40 @@
+package com.inbev.productapi.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the lines of a benchmark, printed and written to target/benchmarks/{name}.txt so builds can be compared.
+ */
+public class BenchmarkReport {
+
+    private final String name;
+    private final List<String> lines = new ArrayList<>();
+
+    public BenchmarkReport(String name) {
+        this.name = name;
+    }
+
+    public BenchmarkReport line(String format, Object... args) {
+        String line = String.format(format, args);
+        System.out.println(line);
+        lines.add(line);
+        return this;
+    }
+
+    public void write() {
+        try {
+            Path directory = Paths.get("target", "benchmarks");
+            Files.createDirectories(directory);
+            Files.write(directory.resolve(name + ".txt"), lines, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
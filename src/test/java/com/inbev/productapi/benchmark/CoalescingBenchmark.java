@@ -0,0 +1,125 @@
+package com.inbev.productapi.benchmark;
+
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.service.coalescing.CoalescingProperties;
+import com.inbev.productapi.service.coalescing.ProductLoader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Flash sale traffic on cold cache entries: many threads asking for a few hot products (90% of the lookups) and long tail ones,
+ * against a repository answering in 2ms. Reports how many queries reach the database for each coalescing mode.
+ */
+public class CoalescingBenchmark {
+
+    static final int THREADS = 256;
+    static final int LOOKUPS_PER_THREAD = 100;
+    static final int HOT_PRODUCTS = 10;
+    static final int CATALOG_SIZE = 10_000;
+    static final long QUERY_MILLIS = 2;
+
+    @Test
+    @DisplayName("Database queries per coalescing mode under contention")
+    public void contention() throws Exception {
+        BenchmarkReport report = new BenchmarkReport("coalescing");
+        report.line("%-14s %10s %10s %12s %12s", "mode", "lookups", "queries", "lookups/q", "lookups/s");
+
+        long direct = 0;
+        long singleFlight = 0;
+        long batch = 0;
+        for (CoalescingProperties.Mode mode : CoalescingProperties.Mode.values()) {
+            AtomicLong queries = new AtomicLong();
+            CoalescingProperties properties = new CoalescingProperties();
+            properties.setMode(mode);
+            properties.setBatchWindow(Duration.ofMillis(1));
+            ProductLoader loader = new ProductLoader(slowRepository(queries), properties);
+
+            long lookups = (long) THREADS * LOOKUPS_PER_THREAD;
+            long elapsed = run(loader);
+
+            report.line("%-14s %10d %10d %12.1f %12.0f", mode, lookups, queries.get(),
+                    (double) lookups / queries.get(), lookups * 1e9 / elapsed);
+            if (mode == CoalescingProperties.Mode.NONE) {
+                direct = queries.get();
+            } else if (mode == CoalescingProperties.Mode.SINGLE_FLIGHT) {
+                singleFlight = queries.get();
+            } else {
+                batch = queries.get();
+            }
+        }
+        report.write();
+
+        assertThat(singleFlight).isLessThan(direct / 2);
+        assertThat(batch).isLessThan(direct / 10);
+    }
+
+    private long run(ProductLoader loader) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int lookup = 0; lookup < LOOKUPS_PER_THREAD; lookup++) {
+                        long id = random.nextInt(10) < 9
+                                ? random.nextInt(HOT_PRODUCTS) + 1
+                                : random.nextInt(CATALOG_SIZE) + 1;
+                        loader.findById(id);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return elapsed;
+    }
+
+    private static ProductRepository slowRepository(AtomicLong queries) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> {
+                    queries.incrementAndGet();
+                    Thread.sleep(QUERY_MILLIS);
+                    switch (method.getName()) {
+                        case "findById":
+                            return Optional.of(createProduct((Long) args[0]));
+                        case "findAllById":
+                            List<Product> products = new ArrayList<>();
+                            for (Object id : (Iterable<?>) args[0]) {
+                                products.add(createProduct((Long) id));
+                            }
+                            return products;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static Product createProduct(Long id) {
+        return Product.builder().id(id).name("beer " + id).description("beer").brand("ambev").price(10.0).build();
+    }
+}
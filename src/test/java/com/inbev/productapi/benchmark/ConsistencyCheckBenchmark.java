@@ -0,0 +1,138 @@
+package com.inbev.productapi.benchmark;
+
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.service.consistency.ConsistencyCheck;
+import com.inbev.productapi.service.consistency.ConsistencyCheckProperties;
+import com.inbev.productapi.service.consistency.DerivedProductView;
+import com.inbev.productapi.service.consistency.ProductConsistencyChecker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows per second of a consistency check over 100k products against a complete in-memory view, unthrottled at
+ * several parallelism levels and throttled, with 1% of the view stale.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ConsistencyCheckBenchmark {
+
+    static final int CATALOG_SIZE = 100_000;
+    static final int THROTTLE = 20_000;
+
+    @Autowired
+    ProductRepository repository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Rows per second of the consistency check")
+    public void consistencyCheck() throws Exception {
+        seed();
+        Map<Long, Product> held = new ConcurrentHashMap<>();
+        repository.findAll().forEach(product -> held.put(product.getId(), product));
+        for (long id = 1; id <= CATALOG_SIZE; id += 100) {
+            held.put(id, held.get(id).toBuilder().price(-1).build());
+        }
+        DerivedProductView view = new MapView(held);
+
+        BenchmarkReport report = new BenchmarkReport("consistency-check");
+        report.line("cores %d, chunk size 1000, %d products, %d stale in the view",
+                Runtime.getRuntime().availableProcessors(), CATALOG_SIZE, CATALOG_SIZE / 100);
+        report.line("%-12s %-10s %10s %10s %12s %12s", "parallelism", "throttle", "rows", "chunks", "divergences",
+                "rows/s");
+        run(view, 1, 0);
+        List<ConsistencyCheck> unthrottled = new ArrayList<>();
+        for (int parallelism : new int[]{1, 2, 4}) {
+            ConsistencyCheck check = run(view, parallelism, 0);
+            unthrottled.add(check);
+            report.line("%-12d %-10s %10d %10d %12d %12.0f", parallelism, "none", check.getRowsScanned(),
+                    check.getChunks(), check.getDivergenceCount(), check.getRowsPerSecond());
+        }
+        ConsistencyCheck throttled = run(view, 4, THROTTLE);
+        report.line("%-12d %-10d %10d %10d %12d %12.0f", 4, THROTTLE, throttled.getRowsScanned(),
+                throttled.getChunks(), throttled.getDivergenceCount(), throttled.getRowsPerSecond());
+        report.write();
+
+        for (ConsistencyCheck check : unthrottled) {
+            assertThat(check.getRowsScanned()).isEqualTo(CATALOG_SIZE);
+            assertThat(check.getDivergenceCount()).isEqualTo(CATALOG_SIZE / 100);
+            assertThat(check.getChecksum()).isEqualTo(throttled.getChecksum());
+        }
+        assertThat(throttled.getRowsPerSecond()).isLessThan(THROTTLE * 1.1);
+    }
+
+    private ConsistencyCheck run(DerivedProductView view, int parallelism, int maxRowsPerSecond) throws Exception {
+        ConsistencyCheckProperties properties = new ConsistencyCheckProperties();
+        properties.setParallelism(parallelism);
+        properties.setMaxRowsPerSecond(maxRowsPerSecond);
+        ProductConsistencyChecker checker = new ProductConsistencyChecker(repository,
+                Collections.singletonList(view), properties, 0, new SimpleMeterRegistry());
+        ConsistencyCheck check = checker.start(TenantContext.DEFAULT_TENANT, false).get();
+        assertThat(check.await(Duration.ofMinutes(5))).isTrue();
+        assertThat(check.getStatus()).isEqualTo(ConsistencyCheck.Status.COMPLETED);
+        return check;
+    }
+
+    private void seed() {
+        List<Object[]> rows = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 1; i <= CATALOG_SIZE; i++) {
+            rows.add(new Object[]{i, "Product " + i, "Lager beer number " + i + ", 350ml can", i % 100 + 0.99,
+                    "Brand " + i % 50});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into product (id, name, description, price, brand, version) values (?, ?, ?, ?, ?, 0)", rows);
+    }
+
+    private static class MapView implements DerivedProductView {
+
+        private final Map<Long, Product> held;
+
+        MapView(Map<Long, Product> held) {
+            this.held = held;
+        }
+
+        @Override
+        public String getName() {
+            return "map";
+        }
+
+        @Override
+        public boolean isComplete() {
+            return true;
+        }
+
+        @Override
+        public Optional<Product> peek(Long id) {
+            return Optional.ofNullable(held.get(id));
+        }
+
+        @Override
+        public void repair(Product current) {
+            held.put(current.getId(), current);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.inbev.productapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbev.productapi.api.dto.ProductDTO;
+import com.inbev.productapi.api.admission.AdmissionProperties;
+import com.inbev.productapi.api.admission.ClientIdentity;
+import com.inbev.productapi.api.idempotency.IdempotencyProperties;
+import com.inbev.productapi.api.idempotency.IdempotentRequests;
+import com.inbev.productapi.api.resource.ProductController;
+import com.inbev.productapi.api.response.ProductResponseCache;
+import com.inbev.productapi.api.response.ResponseCacheProperties;
+import com.inbev.productapi.service.ProductService;
+import com.inbev.productapi.service.warmup.ProductAccessStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.modelmapper.ModelMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.validation.ObjectError;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.Valid;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requests per second of 404 and 400 answers: the exception based error path the controller used to have against the
+ * direct responses of {@link ProductController}. MockMvc skips the /error forward of a real container, which only
+ * made the old path slower.
+ */
+public class ErrorPathBenchmark {
+
+    static final long WARMUP_NANOS = 2_000_000_000L;
+    static final long MEASURE_NANOS = 2_000_000_000L;
+
+    @Test
+    @DisplayName("404 and 400 throughput, exceptions against direct responses")
+    public void errors() throws Exception {
+        ProductService service = Mockito.mock(ProductService.class);
+        Mockito.when(service.getById(Mockito.anyLong())).thenReturn(Optional.empty());
+        ModelMapper modelMapper = new ModelMapper();
+        ObjectMapper objectMapper = new ObjectMapper();
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+
+        ProductController controller = new ProductController(service, modelMapper,
+                new ProductResponseCache(objectMapper, modelMapper, new ResponseCacheProperties()),
+                new ProductAccessStats(100, 10, null), new IdempotentRequests(new IdempotencyProperties()),
+                new ClientIdentity(new AdmissionProperties()), validator);
+        MockMvc direct = MockMvcBuilders.standaloneSetup(controller).setValidator(validator).build();
+        MockMvc exceptions = MockMvcBuilders.standaloneSetup(new ExceptionErrorPath(service))
+                .setValidator(validator).build();
+
+        String invalid = objectMapper.writeValueAsString(new ProductDTO());
+        RequestBuilder missing = MockMvcRequestBuilders.get("/api/product/1").accept(MediaType.APPLICATION_JSON);
+        RequestBuilder badRequest = MockMvcRequestBuilders.post("/api/product")
+                .contentType(MediaType.APPLICATION_JSON).content(invalid);
+
+        BenchmarkReport report = new BenchmarkReport("error-path");
+        report.line("%-6s %-12s %12s", "status", "path", "requests/s");
+        double notFoundBefore = requestsPerSecond(exceptions, missing, 404);
+        double notFoundAfter = requestsPerSecond(direct, missing, 404);
+        double badRequestBefore = requestsPerSecond(exceptions, badRequest, 400);
+        double badRequestAfter = requestsPerSecond(direct, badRequest, 400);
+        report.line("%-6d %-12s %12.0f", 404, "exceptions", notFoundBefore);
+        report.line("%-6d %-12s %12.0f", 404, "direct", notFoundAfter);
+        report.line("%-6d %-12s %12.0f", 400, "exceptions", badRequestBefore);
+        report.line("%-6d %-12s %12.0f", 400, "direct", badRequestAfter);
+        report.write();
+
+        assertThat(notFoundAfter).isGreaterThan(notFoundBefore);
+        assertThat(badRequestAfter).isGreaterThan(badRequestBefore);
+    }
+
+    private static double requestsPerSecond(MockMvc mvc, RequestBuilder request, int status) throws Exception {
+        long end = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < end) {
+            assertThat(mvc.perform(request).andReturn().getResponse().getStatus()).isEqualTo(status);
+        }
+        long requests = 0;
+        long begin = System.nanoTime();
+        end = begin + MEASURE_NANOS;
+        while (System.nanoTime() < end) {
+            mvc.perform(request);
+            requests++;
+        }
+        return requests * 1e9 / (System.nanoTime() - begin);
+    }
+
+    /**
+     * The error handling of the controller before: thrown exceptions for 404 and bean validation through
+     * {@code @Valid} for 400.
+     */
+    @RestController
+    @RequestMapping("/api/product")
+    static class ExceptionErrorPath {
+
+        private final ProductService service;
+
+        ExceptionErrorPath(ProductService service) {
+            this.service = service;
+        }
+
+        @PostMapping
+        @ResponseStatus(HttpStatus.CREATED)
+        public ProductDTO create(@RequestBody @Valid ProductDTO dto) {
+            return dto;
+        }
+
+        @GetMapping("{id}")
+        public ProductDTO get(@PathVariable Long id) {
+            return service.getById(id)
+                    .map(product -> new ProductDTO())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        }
+
+        @ExceptionHandler(MethodArgumentNotValidException.class)
+        @ResponseStatus(HttpStatus.BAD_REQUEST)
+        public Map<String, List<String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
+            return Collections.singletonMap("errors", ex.getBindingResult().getAllErrors().stream()
+                    .map(ObjectError::getDefaultMessage)
+                    .collect(Collectors.toList()));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.inbev.productapi.benchmark;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Response times of one client thread by endpoint, merged into the report once the run is over.
+ */
+class LatencyRecorder {
+
+    final Map<String, Endpoint> endpoints = new TreeMap<>();
+
+    /**
+     * @param status the HTTP status, -1 when the request failed without a response
+     */
+    void record(String endpoint, long micros, int status) {
+        endpoints.computeIfAbsent(endpoint, name -> new Endpoint()).record(micros, status);
+    }
+
+    void merge(LatencyRecorder other) {
+        other.endpoints.forEach((name, endpoint) -> endpoints.computeIfAbsent(name, key -> new Endpoint())
+                .merge(endpoint));
+    }
+
+    Endpoint total() {
+        Endpoint total = new Endpoint();
+        endpoints.values().forEach(total::merge);
+        return total;
+    }
+
+    static class Endpoint {
+        long[] micros = new long[1024];
+        int count;
+        int unsuccessful;
+        int failed;
+
+        void record(long latency, int status) {
+            if (count == micros.length) {
+                micros = Arrays.copyOf(micros, count * 2);
+            }
+            micros[count++] = latency;
+            if (status < 200 || status >= 300) {
+                unsuccessful++;
+            }
+            if (status < 0 || status >= 500) {
+                failed++;
+            }
+        }
+
+        void merge(Endpoint other) {
+            if (count + other.count > micros.length) {
+                micros = Arrays.copyOf(micros, count + other.count);
+            }
+            System.arraycopy(other.micros, 0, micros, count, other.count);
+            count += other.count;
+            unsuccessful += other.unsuccessful;
+            failed += other.failed;
+        }
+
+        /**
+         * @return the latency below which the given share of the requests completed, in milliseconds
+         */
+        double percentile(double share) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(micros, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(share * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))] / 1000.0;
+        }
+    }
+}
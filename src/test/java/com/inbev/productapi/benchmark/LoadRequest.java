@@ -0,0 +1,68 @@
+package com.inbev.productapi.benchmark;
+
+/**
+ * One request of the load test. Requests are reported by endpoint: the method and the path with its ids and names
+ * replaced by placeholders.
+ */
+class LoadRequest {
+
+    final String tenant;
+    final String method;
+    final String path;
+    final String body;
+    final String endpoint;
+
+    LoadRequest(String method, String path, String body) {
+        this(null, method, path, body);
+    }
+
+    /**
+     * @param tenant sent in the tenant header, null for the default tenant
+     */
+    LoadRequest(String tenant, String method, String path, String body) {
+        this.tenant = tenant;
+        this.method = method;
+        this.path = path;
+        this.body = body;
+        this.endpoint = method + " " + endpoint(path);
+    }
+
+    /**
+     * Parses a line of a traffic recording: the tenant after an {@code @} if any, method, path with query, then the
+     * body if any.
+     */
+    static LoadRequest parse(String line) {
+        String request = line.trim();
+        String tenant = null;
+        if (request.startsWith("@")) {
+            int end = request.indexOf(' ');
+            if (end < 0) {
+                throw new IllegalArgumentException("Not a recorded request: " + line);
+            }
+            tenant = request.substring(1, end);
+            request = request.substring(end + 1);
+        }
+        String[] parts = request.split(" ", 3);
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Not a recorded request: " + line);
+        }
+        return new LoadRequest(tenant, parts[0], parts[1], parts.length == 3 ? parts[2] : null);
+    }
+
+    private static String endpoint(String path) {
+        int query = path.indexOf('?');
+        String[] segments = (query < 0 ? path : path.substring(0, query)).split("/");
+        StringBuilder endpoint = new StringBuilder();
+        for (int i = 1; i < segments.length; i++) {
+            endpoint.append('/');
+            if (segments[i].matches("\\d+")) {
+                endpoint.append("{id}");
+            } else if ("findByName".equals(segments[i - 1])) {
+                endpoint.append("{name}");
+            } else {
+                endpoint.append(segments[i]);
+            }
+        }
+        return endpoint.toString();
+    }
+}
@@ -0,0 +1,263 @@
+package com.inbev.productapi.benchmark;
+
+import com.inbev.productapi.ProductsApiApplication;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of the product API started in its own JVM on a file H2 database seeded with {@code loadtest.products}
+ * products, fully offline. Client threads send a read/write mix over every endpoint, or replay a recording of the
+ * product.traffic-recording filter, then throughput and latency percentiles by endpoint go to
+ * target/benchmarks/{loadtest.report}.txt.
+ *
+ * Closed loop by default: each thread sends its next request when the previous one completed. With
+ * {@code loadtest.rate} requests are sent on a fixed schedule and latencies are measured from the time they were due,
+ * so a stalled server shows in the percentiles instead of slowing the load down.
+ *
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=LoadTestBenchmark -Dloadtest.threads=32 -Dloadtest.duration=60
+ *     -Dloadtest.replay=traffic.log -Dloadtest.app-args="--spring.profiles.active=prod"
+ * </pre>
+ */
+public class LoadTestBenchmark {
+
+    static final int PRODUCTS = Integer.getInteger("loadtest.products", 10_000);
+    static final int THREADS = Integer.getInteger("loadtest.threads", 16);
+    static final int WARM_UP_SECONDS = Integer.getInteger("loadtest.warm-up", 10);
+    static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration", 30);
+    static final int RATE = Integer.getInteger("loadtest.rate", 0);
+    static final String REPLAY = System.getProperty("loadtest.replay", "");
+    static final String REPORT = System.getProperty("loadtest.report", "load-test");
+    static final String JVM_ARGS = System.getProperty("loadtest.jvm-args", "-Xmx512m");
+    // rate limits are per client and the load test is a single one
+    static final String APP_ARGS = System.getProperty("loadtest.app-args", "--product.admission.enabled=false");
+    static final long START_TIMEOUT_MILLIS = 120_000L;
+
+    @Test
+    @DisplayName("Throughput and latency percentiles of the product API under a read/write mix")
+    public void loadTest() throws Exception {
+        Path data = Files.createTempDirectory("load-test");
+        String url = "jdbc:h2:file:" + data.resolve("products").toAbsolutePath();
+        seed(url);
+        LoadTraffic traffic = REPLAY.isEmpty() ? LoadTraffic.mix(PRODUCTS) : LoadTraffic.replay(Paths.get(REPLAY));
+
+        int port = StartupBenchmark.freePort();
+        Process app = start(url, port, data);
+        try {
+            String base = "http://localhost:" + port;
+            run(traffic, base, WARM_UP_SECONDS);
+            LatencyRecorder results = run(traffic, base, DURATION_SECONDS);
+            long rssKb = StartupBenchmark.residentSetKb(app);
+            report(results, rssKb);
+            assertThat(results.total().count).isPositive();
+            assertThat(results.total().failed).isZero();
+        } finally {
+            app.destroy();
+            app.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void seed(String url) throws Exception {
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").load().migrate();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into product (name, description, price, brand, version) values (?, ?, ?, ?, 0)")) {
+                for (int i = 1; i <= PRODUCTS; i++) {
+                    insert.setString(1, "Product " + i);
+                    insert.setString(2, "Lager beer number " + i + ", 350ml can");
+                    insert.setDouble(3, i % 100 + 0.99);
+                    insert.setString(4, "Brand " + i % 50);
+                    insert.addBatch();
+                    if (i % 1_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into product_variant (product_id, sku, description, pack_size, price) values (?, ?, ?, ?, ?)")) {
+                // a six and a twelve pack for every tenth product
+                for (int i = 10; i <= PRODUCTS; i += 10) {
+                    for (int packSize : new int[]{6, 12}) {
+                        insert.setLong(1, i);
+                        insert.setString(2, "SKU-" + i + "-" + packSize);
+                        insert.setString(3, packSize + " pack");
+                        insert.setInt(4, packSize);
+                        insert.setDouble(5, packSize * (i % 100 + 0.99));
+                        insert.addBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN");
+            }
+        }
+    }
+
+    private static Process start(String url, int port, Path data) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(arguments(JVM_ARGS));
+        command.addAll(Arrays.asList("-cp", StartupBenchmark.applicationClassPath(),
+                ProductsApiApplication.class.getName(),
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=sa",
+                "--server.port=" + port,
+                "--logging.level.root=WARN"));
+        command.addAll(arguments(APP_ARGS));
+        Path output = data.resolve("output.log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+        long begin = System.nanoTime();
+        URL ready = new URL("http://localhost:" + port + "/api/product?page=0&size=1");
+        while (!StartupBenchmark.respondsOk(ready)) {
+            if (!process.isAlive() || System.nanoTime() - begin > TimeUnit.MILLISECONDS.toNanos(START_TIMEOUT_MILLIS)) {
+                process.destroy();
+                throw new IllegalStateException("Application did not start: "
+                        + new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+            }
+            Thread.sleep(50);
+        }
+        return process;
+    }
+
+    private static LatencyRecorder run(LoadTraffic traffic, String base, int seconds) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long interval = RATE > 0 ? TimeUnit.SECONDS.toNanos(THREADS) / RATE : 0;
+        List<Future<LatencyRecorder>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            // spreads the schedules of the threads over one interval
+            long first = start + interval * i / THREADS;
+            futures.add(clients.submit(() -> client(traffic, base, first, end, interval)));
+        }
+        LatencyRecorder merged = new LatencyRecorder();
+        for (Future<LatencyRecorder> future : futures) {
+            merged.merge(future.get());
+        }
+        clients.shutdown();
+        return merged;
+    }
+
+    private static LatencyRecorder client(LoadTraffic traffic, String base, long first, long end, long interval)
+            throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        SplittableRandom random = new SplittableRandom();
+        long due = first;
+        while (true) {
+            long begin;
+            if (interval > 0) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                begin = due;
+                due += interval;
+            } else {
+                begin = System.nanoTime();
+            }
+            if (begin >= end) {
+                return recorder;
+            }
+            LoadRequest request = traffic.next(random);
+            int status = send(base, request);
+            recorder.record(request.endpoint, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin), status);
+        }
+    }
+
+    private static int send(String base, LoadRequest request) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(base + request.path).openConnection();
+            connection.setRequestMethod(request.method);
+            connection.setRequestProperty("Accept", "application/json");
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            if (request.tenant != null) {
+                connection.setRequestProperty("X-Tenant-Id", request.tenant);
+            }
+            if (request.body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream body = connection.getOutputStream()) {
+                    body.write(request.body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            // reading the body to the end lets the connection be reused
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (body != null) {
+                    byte[] buffer = new byte[8192];
+                    while (body.read(buffer) >= 0) {
+                        // discard
+                    }
+                }
+            }
+            return status;
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    private static void report(LatencyRecorder results, long rssKb) {
+        BenchmarkReport report = new BenchmarkReport(REPORT);
+        report.line("products %d, threads %d, %ds after %ds warm-up, %s, traffic %s", PRODUCTS, THREADS,
+                DURATION_SECONDS, WARM_UP_SECONDS, RATE > 0 ? RATE + " req/s scheduled" : "closed loop",
+                REPLAY.isEmpty() ? "mix" : "replay of " + REPLAY);
+        report.line("app args: %s %s, rss at the end %d MB", JVM_ARGS, APP_ARGS, rssKb / 1024);
+        report.line("%-40s %9s %8s %7s %9s %8s %8s %8s %8s %8s", "endpoint", "requests", "non-2xx", "failed",
+                "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, LatencyRecorder.Endpoint> entry : results.endpoints.entrySet()) {
+            line(report, entry.getKey(), entry.getValue());
+        }
+        line(report, "all", results.total());
+        report.write();
+    }
+
+    private static void line(BenchmarkReport report, String name, LatencyRecorder.Endpoint endpoint) {
+        report.line("%-40s %9d %8d %7d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f", name, endpoint.count,
+                endpoint.unsuccessful, endpoint.failed, (double) endpoint.count / DURATION_SECONDS,
+                endpoint.percentile(0.5), endpoint.percentile(0.9), endpoint.percentile(0.99),
+                endpoint.percentile(0.999), endpoint.percentile(1));
+    }
+
+    private static List<String> arguments(String line) {
+        List<String> arguments = new ArrayList<>();
+        for (String argument : line.trim().split("\\s+")) {
+            if (!argument.isEmpty()) {
+                arguments.add(argument);
+            }
+        }
+        return arguments;
+    }
+}
@@ -0,0 +1,91 @@
+package com.inbev.productapi.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Source of the load test requests, shared by the client threads.
+ */
+interface LoadTraffic {
+
+    LoadRequest next(SplittableRandom random);
+
+    /**
+     * The recorded requests in order, from the start again once all were sent.
+     */
+    static LoadTraffic replay(Path recording) throws IOException {
+        List<LoadRequest> requests = Files.readAllLines(recording, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.trim().isEmpty())
+                .map(LoadRequest::parse)
+                .collect(Collectors.toList());
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException(recording + " holds no request");
+        }
+        AtomicInteger cursor = new AtomicInteger();
+        return random -> requests.get(Math.floorMod(cursor.getAndIncrement(), requests.size()));
+    }
+
+    /**
+     * A storefront-like mix over every endpoint of the product API: 85% reads, mostly of the 1% hottest products,
+     * and 15% writes.
+     */
+    static LoadTraffic mix(int products) {
+        int hot = Math.max(1, products / 100);
+        AtomicLong created = new AtomicLong();
+        return random -> {
+            long id = random.nextInt(10) < 8 ? random.nextInt(hot) + 1 : random.nextInt(products) + 1;
+            int pick = random.nextInt(100);
+            if (pick < 50) {
+                return get("/api/product/" + id);
+            }
+            if (pick < 60) {
+                return get("/api/product/findByName/Product%20" + id);
+            }
+            if (pick < 68) {
+                return get("/api/product?brand=Brand%20" + id % 50 + "&page=" + random.nextInt(5) + "&size=20");
+            }
+            if (pick < 73) {
+                StringBuilder ids = new StringBuilder().append(id);
+                for (int i = 1; i < 10; i++) {
+                    ids.append(',').append(random.nextInt(products) + 1);
+                }
+                return get("/api/product/batch?ids=" + ids);
+            }
+            if (pick < 78) {
+                return get("/api/product/" + id + "/variants");
+            }
+            if (pick < 80) {
+                return get("/api/product/variants?page=" + random.nextInt(5) + "&size=20");
+            }
+            if (pick < 85) {
+                long number = created.incrementAndGet();
+                return new LoadRequest("POST", "/api/product", "{\"name\":\"Load " + number + " " + random.nextLong()
+                        + "\",\"description\":\"Created by the load test\",\"brand\":\"Load\",\"price\":9.99}");
+            }
+            if (pick < 95) {
+                return new LoadRequest("PUT", "/api/product/" + (random.nextInt(products) + 1),
+                        "{\"name\":\"Renamed " + random.nextLong() + "\",\"description\":\"Updated by the load test\","
+                                + "\"brand\":\"Load\",\"price\":9.99}");
+            }
+            if (pick < 98) {
+                return new LoadRequest("POST", "/api/product/" + id + "/variants", "{\"sku\":\"LOAD-"
+                        + Long.toHexString(random.nextLong()) + "\",\"description\":\"Pack\",\"packSize\":"
+                        + (random.nextInt(24) + 1) + ",\"price\":19.99}");
+            }
+            // only products created by the run are deleted, the seeded catalog stays the same size
+            long deleted = created.get() == 0 ? products + 1 : products + 1 + random.nextLong(created.get());
+            return new LoadRequest("DELETE", "/api/product/" + deleted, null);
+        };
+    }
+
+    static LoadRequest get(String path) {
+        return new LoadRequest("GET", path, null);
+    }
+}
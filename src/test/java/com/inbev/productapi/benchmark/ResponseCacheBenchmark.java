@@ -0,0 +1,78 @@
+package com.inbev.productapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbev.productapi.api.dto.ProductDTO;
+import com.inbev.productapi.api.response.ProductResponseCache;
+import com.inbev.productapi.api.response.ResponseCacheProperties;
+import com.inbev.productapi.model.entity.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time and allocation per single product response: mapping and serializing per request against pre-serialized bytes.
+ */
+public class ResponseCacheBenchmark {
+
+    static final long WARMUP_NANOS = 1_000_000_000L;
+    static final long MEASURE_NANOS = 1_000_000_000L;
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final ModelMapper modelMapper = new ModelMapper();
+    final ProductResponseCache cache = new ProductResponseCache(objectMapper, modelMapper, new ResponseCacheProperties());
+
+    @Test
+    @DisplayName("Per request serialization against the response cache")
+    public void responses() throws Exception {
+        Product product = Product.builder().id(1L).version(1L).name("Corona Extra")
+                .description("Mexican pale lager, 355ml long neck").brand("Corona").price(4.99).build();
+
+        BenchmarkReport report = new BenchmarkReport("response-cache");
+        report.line("%-22s %12s %14s", "path", "ns/op", "bytes/op");
+        Result direct = measure(() -> objectMapper.writeValueAsBytes(modelMapper.map(product, ProductDTO.class)));
+        Result cached = measure(() -> cache.json(product, false).getBody());
+        Result gzipped = measure(() -> cache.json(product, true).getBody());
+        report.line("%-22s %12.0f %14.0f", "map + serialize", direct.nanos, direct.bytes);
+        report.line("%-22s %12.0f %14.0f", "cached json", cached.nanos, cached.bytes);
+        report.line("%-22s %12.0f %14.0f", "cached json, gzip ok", gzipped.nanos, gzipped.bytes);
+        report.write();
+
+        assertThat(cached.nanos).isLessThan(direct.nanos);
+    }
+
+    private static Result measure(SerializationBenchmark.Operation operation) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Object sink = null;
+        long end = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < end) {
+            sink = operation.run();
+        }
+        long operations = 0;
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long begin = System.nanoTime();
+        end = begin + MEASURE_NANOS;
+        while (System.nanoTime() < end) {
+            sink = operation.run();
+            operations++;
+        }
+        long elapsed = System.nanoTime() - begin;
+        allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+        assertThat(sink).isNotNull();
+        return new Result((double) elapsed / operations, (double) allocated / operations);
+    }
+
+    static class Result {
+        final double nanos;
+        final double bytes;
+
+        Result(double nanos, double bytes) {
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+    }
+}
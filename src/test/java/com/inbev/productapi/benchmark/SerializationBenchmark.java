@@ -0,0 +1,94 @@
+package com.inbev.productapi.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.inbev.productapi.api.dto.ProductDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Payload size and encode/decode time of product responses in JSON, CBOR and Smile.
+ */
+public class SerializationBenchmark {
+
+    static final long WARMUP_NANOS = 1_000_000_000L;
+    static final long MEASURE_NANOS = 1_000_000_000L;
+
+    final ObjectMapper json = new ObjectMapper();
+    final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+    final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+
+    @Test
+    @DisplayName("Size and speed of each format for single, batch and list responses")
+    public void formats() throws Exception {
+        BenchmarkReport report = new BenchmarkReport("serialization");
+        report.line("%-8s %-7s %10s %8s %14s %14s", "payload", "format", "bytes", "vs json", "encode ns/op", "decode ns/op");
+
+        measure(report, "single", createProduct(1));
+        measure(report, "batch", createProducts(100));
+        measure(report, "list", createProducts(1000));
+        report.write();
+
+        assertThat(cbor.writeValueAsBytes(createProducts(100)).length)
+                .isLessThan(json.writeValueAsBytes(createProducts(100)).length);
+    }
+
+    private void measure(BenchmarkReport report, String payload, Object value) throws Exception {
+        int jsonSize = json.writeValueAsBytes(value).length;
+        for (String format : new String[]{"json", "cbor", "smile"}) {
+            ObjectMapper mapper = "json".equals(format) ? json : "cbor".equals(format) ? cbor : smile;
+            byte[] encoded = mapper.writeValueAsBytes(value);
+            Class<?> type = value.getClass();
+            TypeReference<?> listType = new TypeReference<List<ProductDTO>>() { };
+
+            double encode = nanosPerOp(() -> mapper.writeValueAsBytes(value));
+            double decode = nanosPerOp(() -> value instanceof List
+                    ? mapper.readValue(encoded, listType)
+                    : mapper.readValue(encoded, type));
+
+            report.line("%-8s %-7s %10d %7.0f%% %14.0f %14.0f", payload, format, encoded.length,
+                    100.0 * encoded.length / jsonSize, encode, decode);
+        }
+    }
+
+    private static double nanosPerOp(Operation operation) throws Exception {
+        Object sink = null;
+        long end = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < end) {
+            sink = operation.run();
+        }
+        long operations = 0;
+        long begin = System.nanoTime();
+        end = begin + MEASURE_NANOS;
+        while (System.nanoTime() < end) {
+            sink = operation.run();
+            operations++;
+        }
+        assertThat(sink).isNotNull();
+        return (double) (System.nanoTime() - begin) / operations;
+    }
+
+    private static List<ProductDTO> createProducts(int count) {
+        List<ProductDTO> products = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            products.add(createProduct(i));
+        }
+        return products;
+    }
+
+    private static ProductDTO createProduct(long id) {
+        return ProductDTO.builder().id(id).name("Corona Extra " + id).description("Mexican pale lager, 355ml long neck")
+                .brand("Corona").price(4.99 + id % 7).build();
+    }
+
+    interface Operation {
+        Object run() throws Exception;
+    }
+}
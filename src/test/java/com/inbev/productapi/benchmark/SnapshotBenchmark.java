@@ -0,0 +1,158 @@
+package com.inbev.productapi.benchmark;
+
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.service.snapshot.ProductSnapshot;
+import com.inbev.productapi.service.snapshot.ProductSnapshotWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A catalog of 100k products held three ways: a memory-mapped snapshot, the {@code HashMap<Long, Product>} it
+ * replaces, and no copy at all, reading through JPA. Reports the heap each one retains, the full GC pause with it
+ * live, and random lookups per second with the collections they cause.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SnapshotBenchmark {
+
+    static final int CATALOG_SIZE = 100_000;
+    static final int LOOKUPS = 500_000;
+    static final int JPA_LOOKUPS = 20_000;
+
+    @Autowired
+    ProductRepository repository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Heap, GC and lookup throughput of the product snapshot against a heap map and JPA")
+    public void snapshot() throws Exception {
+        seed();
+        BenchmarkReport report = new BenchmarkReport("snapshot");
+
+        long begin = System.nanoTime();
+        Path file = new ProductSnapshotWriter(repository, 1_000).write(directory);
+        report.line("snapshot of %d products written in %d ms, %.1f MB off heap", CATALOG_SIZE,
+                (System.nanoTime() - begin) / 1_000_000, Files.size(file) / 1e6);
+        report.line("%-10s %12s %14s %12s %10s %12s", "mode", "heap MB", "full GC ms", "lookups/s", "GCs", "GC ms");
+
+        long baseline = usedHeap();
+        ProductSnapshot snapshot = ProductSnapshot.open(file);
+        Measure snapshotMeasure = measure(baseline, LOOKUPS, id -> snapshot.getById(id).orElse(null));
+        report.line(snapshotMeasure.format("snapshot"));
+
+        baseline = usedHeap();
+        Map<Long, Product> map = new HashMap<>();
+        repository.findAll().forEach(product -> map.put(product.getId(), product));
+        Measure mapMeasure = measure(baseline, LOOKUPS, map::get);
+        report.line(mapMeasure.format("hash map"));
+        assertThat(map).hasSize(CATALOG_SIZE);
+        map.clear();
+
+        baseline = usedHeap();
+        Measure jpaMeasure = measure(baseline, JPA_LOOKUPS, id -> repository.findById(id).orElse(null));
+        report.line(jpaMeasure.format("jpa"));
+        report.write();
+
+        assertThat(snapshot.size()).isEqualTo(CATALOG_SIZE);
+        assertThat(snapshotMeasure.heap).isLessThan(mapMeasure.heap / 10);
+        assertThat(snapshotMeasure.lookupsPerSecond).isGreaterThan(jpaMeasure.lookupsPerSecond);
+    }
+
+    private Measure measure(long baseline, int lookups, LongFunction<Product> lookup) {
+        Measure measure = new Measure();
+        measure.heap = usedHeap() - baseline;
+        long begin = System.nanoTime();
+        System.gc();
+        measure.fullGcMillis = (System.nanoTime() - begin) / 1e6;
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < lookups / 10; i++) {
+            lookup.apply(random.nextInt(CATALOG_SIZE) + 1);
+        }
+        long collections = collections();
+        long collectionMillis = collectionMillis();
+        begin = System.nanoTime();
+        long found = 0;
+        for (int i = 0; i < lookups; i++) {
+            if (lookup.apply(random.nextInt(CATALOG_SIZE) + 1) != null) {
+                found++;
+            }
+        }
+        measure.lookupsPerSecond = lookups * 1e9 / (System.nanoTime() - begin);
+        measure.collections = collections() - collections;
+        measure.collectionMillis = collectionMillis() - collectionMillis;
+        assertThat(found).isEqualTo(lookups);
+        return measure;
+    }
+
+    private void seed() {
+        List<Object[]> rows = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 1; i <= CATALOG_SIZE; i++) {
+            rows.add(new Object[]{i, "Product " + i, "Lager beer number " + i + ", 350ml can", i % 100 + 0.99,
+                    "Brand " + i % 50});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into product (id, name, description, price, brand, version) values (?, ?, ?, ?, ?, 0)", rows);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long collections() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long collectionMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static class Measure {
+        long heap;
+        double fullGcMillis;
+        double lookupsPerSecond;
+        long collections;
+        long collectionMillis;
+
+        String format(String mode) {
+            return String.format("%-10s %12.1f %14.1f %12.0f %10d %12d", mode, heap / 1e6, fullGcMillis,
+                    lookupsPerSecond, collections, collectionMillis);
+        }
+    }
+}
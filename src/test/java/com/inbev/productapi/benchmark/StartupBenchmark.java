@@ -0,0 +1,149 @@
+package com.inbev.productapi.benchmark;
+
+import com.inbev.productapi.ProductsApiApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time from JVM launch to the first successful request, and resident memory at that point, of the application
+ * started in its own JVM with the default and the prod profile.
+ */
+public class StartupBenchmark {
+
+    static final int RUNS = 3;
+    static final long TIMEOUT_MILLIS = 120_000L;
+
+    @Test
+    @DisplayName("Time to first request and RSS of the default and prod profiles")
+    public void startup() throws Exception {
+        BenchmarkReport report = new BenchmarkReport("startup");
+        report.line("%-8s %24s %12s", "profile", "first request ms (median)", "rss MB");
+
+        Result defaults = measure("default");
+        Result prod = measure("prod");
+        report.line("%-8s %24d %12d", "default", defaults.firstRequestMillis, defaults.rssKb / 1024);
+        report.line("%-8s %24d %12d", "prod", prod.firstRequestMillis, prod.rssKb / 1024);
+        report.write();
+
+        assertThat(prod.firstRequestMillis).isLessThan(defaults.firstRequestMillis);
+    }
+
+    private Result measure(String profile) throws Exception {
+        long[] millis = new long[RUNS];
+        long rssKb = 0;
+        for (int i = 0; i < RUNS; i++) {
+            Result run = launch(profile);
+            millis[i] = run.firstRequestMillis;
+            rssKb = Math.max(rssKb, run.rssKb);
+        }
+        Arrays.sort(millis);
+        return new Result(millis[RUNS / 2], rssKb);
+    }
+
+    private Result launch(String profile) throws Exception {
+        int port = freePort();
+        Path data = Files.createTempDirectory("startup-benchmark");
+        List<String> command = new ArrayList<>(Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", applicationClassPath(),
+                ProductsApiApplication.class.getName(),
+                "--spring.profiles.active=" + profile,
+                "--server.port=" + port,
+                "--logging.level.root=WARN"));
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(data.resolve("output.log").toFile());
+        builder.environment().put("PRODUCT_DB_DIR", data.toString());
+
+        long begin = System.nanoTime();
+        Process process = builder.start();
+        try {
+            URL url = new URL("http://localhost:" + port + "/api/product?page=0&size=1");
+            while (!respondsOk(url)) {
+                if (!process.isAlive() || System.nanoTime() - begin > TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS)) {
+                    throw new IllegalStateException("Application did not start: "
+                            + new String(Files.readAllBytes(data.resolve("output.log")), StandardCharsets.UTF_8));
+                }
+                Thread.sleep(5);
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+            return new Result(millis, residentSetKb(process));
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    static boolean respondsOk(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(100);
+            try {
+                return connection.getResponseCode() == 200;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Main classes and dependencies only, test classes and test resources would change what starts.
+     */
+    static String applicationClassPath() {
+        String classPath = System.getProperty("java.class.path");
+        return Arrays.stream(classPath.split(File.pathSeparator))
+                .filter(entry -> !entry.endsWith("test-classes") && !entry.contains("surefire"))
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    static long residentSetKb(Process process) throws Exception {
+        Field pid = process.getClass().getDeclaredField("pid");
+        pid.setAccessible(true);
+        Path status = Paths.get("/proc", String.valueOf(pid.getInt(process)), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return 0;
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    static class Result {
+        final long firstRequestMillis;
+        final long rssKb;
+
+        Result(long firstRequestMillis, long rssKb) {
+            this.firstRequestMillis = firstRequestMillis;
+            this.rssKb = rssKb;
+        }
+    }
+}
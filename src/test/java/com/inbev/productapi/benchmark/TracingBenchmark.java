@@ -0,0 +1,173 @@
+package com.inbev.productapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbev.productapi.api.admission.AdmissionProperties;
+import com.inbev.productapi.api.admission.ClientIdentity;
+import com.inbev.productapi.api.idempotency.IdempotencyProperties;
+import com.inbev.productapi.api.idempotency.IdempotentRequests;
+import com.inbev.productapi.api.resource.ProductController;
+import com.inbev.productapi.api.response.ProductResponseCache;
+import com.inbev.productapi.api.response.ResponseCacheProperties;
+import com.inbev.productapi.api.tracing.HandlerTracingInterceptor;
+import com.inbev.productapi.api.tracing.TracingFilter;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.service.ProductService;
+import com.inbev.productapi.service.tracing.JdbcTracingInterceptor;
+import com.inbev.productapi.service.tracing.ServiceTracingInterceptor;
+import com.inbev.productapi.service.tracing.Tracer;
+import com.inbev.productapi.service.warmup.ProductAccessStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.modelmapper.ModelMapper;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.web.servlet.setup.StandaloneMockMvcBuilder;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of tracing per product request: a GET through the controller, a traced service and one JDBC query on an
+ * in-memory H2, untraced and at several sample ratios. Spans go to an exporter that drops them.
+ */
+public class TracingBenchmark {
+
+    static final long WARMUP_NANOS = 2_000_000_000L;
+    static final long MEASURE_NANOS = 2_000_000_000L;
+
+    @Test
+    @DisplayName("Tracing overhead per request by sample ratio")
+    public void tracing() throws Exception {
+        SingleConnectionDataSource database = new SingleConnectionDataSource(
+                "jdbc:h2:mem:tracing-benchmark;DB_CLOSE_DELAY=-1", "sa", "", true);
+        RequestBuilder request = MockMvcRequestBuilders.get("/api/product/1").accept(MediaType.APPLICATION_JSON);
+
+        double[] ratios = {0, 0.01, 1};
+        MockMvc untraced = mvc(null, database);
+        AtomicLong[] spans = new AtomicLong[ratios.length];
+        MockMvc[] traced = new MockMvc[ratios.length];
+        for (int i = 0; i < ratios.length; i++) {
+            AtomicLong exported = new AtomicLong();
+            spans[i] = exported;
+            traced[i] = mvc(new Tracer(span -> exported.incrementAndGet(), ratios[i]), database);
+        }
+        // a first round for the JIT, the second one is reported
+        Result off = null;
+        Result[] results = new Result[ratios.length];
+        for (int round = 0; round < 2; round++) {
+            off = measure(untraced, request);
+            for (int i = 0; i < ratios.length; i++) {
+                spans[i].set(0);
+                results[i] = measure(traced[i], request);
+            }
+        }
+
+        BenchmarkReport report = new BenchmarkReport("tracing");
+        report.line("%-14s %12s %14s %14s %10s", "sampling", "requests/s", "ns/request", "bytes/request", "spans");
+        report.line("%-14s %12.0f %14.0f %14.0f %10d", "off", 1e9 / off.nanos, off.nanos, off.bytes, 0);
+        for (int i = 0; i < ratios.length; i++) {
+            report.line("%-14s %12.0f %14.0f %14.0f %10d", ratios[i], 1e9 / results[i].nanos, results[i].nanos,
+                    results[i].bytes, spans[i].get());
+        }
+        Result unsampled = results[0];
+        assertThat(spans[0].get()).isZero();
+        report.write();
+        database.destroy();
+
+        // within the noise of a single core box
+        assertThat(unsampled.nanos).isLessThan(off.nanos * 1.2);
+    }
+
+    private static MockMvc mvc(Tracer tracer, DataSource database) {
+        DataSource dataSource = database;
+        if (tracer != null) {
+            NameMatchMethodPointcutAdvisor getConnection = new NameMatchMethodPointcutAdvisor(
+                    new JdbcTracingInterceptor(() -> tracer, 1_000));
+            getConnection.setMappedName("getConnection");
+            ProxyFactory factory = new ProxyFactory(database);
+            factory.addAdvisor(getConnection);
+            dataSource = (DataSource) factory.getProxy();
+        }
+        ProductService service = Mockito.mock(ProductService.class);
+        DataSource queried = dataSource;
+        Mockito.when(service.getById(Mockito.anyLong())).thenAnswer(invocation -> Optional.of(
+                query(queried, invocation.getArgument(0))));
+        if (tracer != null) {
+            ProxyFactory factory = new ProxyFactory(service);
+            factory.addInterface(ProductService.class);
+            factory.addAdvice(new ServiceTracingInterceptor(() -> tracer));
+            service = (ProductService) factory.getProxy();
+        }
+
+        ModelMapper modelMapper = new ModelMapper();
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+        ProductController controller = new ProductController(service, modelMapper,
+                new ProductResponseCache(new ObjectMapper(), modelMapper, new ResponseCacheProperties()),
+                new ProductAccessStats(100, 10, null), new IdempotentRequests(new IdempotencyProperties()),
+                new ClientIdentity(new AdmissionProperties()), validator);
+        StandaloneMockMvcBuilder builder = MockMvcBuilders.standaloneSetup(controller).setValidator(validator);
+        if (tracer != null) {
+            builder.addFilters(new TracingFilter(tracer)).addInterceptors(new HandlerTracingInterceptor(tracer));
+        }
+        return builder.build();
+    }
+
+    private static Product query(DataSource dataSource, Long id) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT ?, 'Corona Extra'")) {
+            statement.setLong(1, id);
+            try (ResultSet result = statement.executeQuery()) {
+                result.next();
+                return Product.builder().id(result.getLong(1)).version(1L).name(result.getString(2))
+                        .brand("Corona").price(4.99).build();
+            }
+        }
+    }
+
+    private static Result measure(MockMvc mvc, RequestBuilder request) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long end = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < end) {
+            assertThat(mvc.perform(request).andReturn().getResponse().getStatus()).isEqualTo(200);
+        }
+        long requests = 0;
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long begin = System.nanoTime();
+        end = begin + MEASURE_NANOS;
+        while (System.nanoTime() < end) {
+            mvc.perform(request);
+            requests++;
+        }
+        long elapsed = System.nanoTime() - begin;
+        allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+        return new Result((double) elapsed / requests, (double) allocated / requests);
+    }
+
+    static class Result {
+        final double nanos;
+        final double bytes;
+
+        Result(double nanos, double bytes) {
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+    }
+}
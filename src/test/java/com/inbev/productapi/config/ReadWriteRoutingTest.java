@@ -0,0 +1,107 @@
+package com.inbev.productapi.config;
+
+import com.inbev.productapi.config.datasource.ReadWritePools;
+import com.inbev.productapi.config.datasource.ReplicaLagGuard;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.service.ProductService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "product.datasource.routing.enabled=true",
+        "product.cache.enabled=false",
+        "product.datasource.routing.max-replica-lag=1s",
+        "product.datasource.routing.lag-query=SELECT lag_millis FROM replica_status",
+        "product.datasource.routing.lag-check-interval=1h",
+        "product.datasource.primary.jdbc-url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "product.datasource.replica.jdbc-url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1"
+})
+public class ReadWriteRoutingTest {
+
+    @Autowired
+    ProductService service;
+
+    @Autowired
+    ReplicaLagGuard lagGuard;
+
+    @Autowired
+    ReadWritePools pools;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+
+    @BeforeEach
+    public void setUp(){
+        // in production the replica gets its schema through replication
+        Flyway.configure().dataSource(pools.getReplica()).load().migrate();
+        primary = new JdbcTemplate(pools.getPrimary());
+        replica = new JdbcTemplate(pools.getReplica());
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_status (lag_millis BIGINT)");
+        replica.update("DELETE FROM replica_status");
+        replica.update("INSERT INTO replica_status VALUES (0)");
+        lagGuard.refresh();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        primary.update("DELETE FROM product");
+        replica.update("DELETE FROM product");
+    }
+
+    @Test
+    @DisplayName("Must send writes to the primary")
+    public void writesGoToPrimaryTest(){
+        //when
+        service.save(Product.builder().name("corona").description("beer").brand("ambev").price(10.0).build());
+
+        //then
+        assertThat(primary.queryForObject("SELECT COUNT(*) FROM product", Long.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM product", Long.class)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Must send read only queries to the replica")
+    public void readsGoToReplicaTest(){
+        //given
+        insertOnReplica();
+
+        //when
+        boolean found = service.getByName("replica-only").isPresent();
+
+        //then
+        assertThat(found).isTrue();
+    }
+
+    @Test
+    @DisplayName("Must send reads to the primary while the replica lags behind")
+    public void readsFallBackToPrimaryTest(){
+        //given
+        insertOnReplica();
+        replica.update("UPDATE replica_status SET lag_millis = 5000");
+
+        //when
+        lagGuard.refresh();
+        boolean found = service.getByName("replica-only").isPresent();
+
+        //then
+        assertThat(lagGuard.getMeasuredLagMillis()).isEqualTo(5000);
+        assertThat(found).isFalse();
+    }
+
+    private void insertOnReplica() {
+        replica.update("INSERT INTO product (id, name, description, price, brand) VALUES (500, 'replica-only', 'beer', 1.0, 'ambev')");
+    }
+}
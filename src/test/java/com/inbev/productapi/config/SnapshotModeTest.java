@@ -0,0 +1,70 @@
+package com.inbev.productapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbev.productapi.api.dto.ProductDTO;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.service.snapshot.SnapshotProductService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "product.snapshot.enabled=true",
+        "product.snapshot.directory=target/snapshot-mode-test",
+        "product.admission.enabled=false"
+})
+@AutoConfigureMockMvc
+public class SnapshotModeTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    ProductRepository repository;
+
+    @Autowired
+    SnapshotProductService service;
+
+    @Test
+    @DisplayName("Must reject every update of the read-only catalog and keep serving the product")
+    public void updateTwiceTest() throws Exception {
+        //given
+        Product product = repository.save(Product.builder().name("Snapshot " + System.nanoTime())
+                .description("Pilsen").brand("Ambev").price(4.5).build());
+        service.refresh();
+        ProductDTO dto = ProductDTO.builder().name("Renamed").description("Pilsen").brand("Ambev").price(4.5).build();
+
+        //when
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(MockMvcRequestBuilders.put("/api/product/" + product.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isMethodNotAllowed())
+                    .andExpect(jsonPath("errors[0]").value("Catalog is read-only on this instance"));
+        }
+
+        //then
+        mvc.perform(MockMvcRequestBuilders.get("/api/product/" + product.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("name").value(product.getName()));
+        assertThat(repository.findById(product.getId()).get().getName()).isEqualTo(product.getName());
+    }
+}
@@ -0,0 +1,115 @@
+package com.inbev.productapi.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbev.productapi.api.dto.ProductDTO;
+import com.inbev.productapi.config.tenancy.TenancyProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "product.tenancy.tenants=default,br,ar",
+        "product.admission.enabled=false"
+})
+@AutoConfigureMockMvc
+public class TenancyTest {
+
+    static final String TENANT = "X-Tenant-Id";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Must keep the catalog and the cached products of each tenant apart")
+    public void isolationTest() throws Exception {
+        //given
+        String name = "Brahma " + System.nanoTime();
+        long brazil = create("br", name);
+        long argentina = create("ar", name);
+
+        //when
+        mvc.perform(MockMvcRequestBuilders.get("/api/product/" + brazil).header(TENANT, "br"))
+                .andExpect(status().isOk());
+
+        //then
+        assertThat(brazil).isNotEqualTo(argentina);
+        mvc.perform(MockMvcRequestBuilders.get("/api/product/" + brazil).header(TENANT, "ar"))
+                .andExpect(status().isNotFound());
+        mvc.perform(MockMvcRequestBuilders.get("/api/product/" + brazil))
+                .andExpect(status().isNotFound());
+        mvc.perform(MockMvcRequestBuilders.get("/api/product/findByName/" + name).header(TENANT, "ar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("id").value(argentina));
+        mvc.perform(MockMvcRequestBuilders.get("/api/product").param("name", name).header(TENANT, "br"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("totalElements").value(1))
+                .andExpect(jsonPath("content[0].id").value(brazil));
+    }
+
+    @Test
+    @DisplayName("Must reject the requests for a tenant not served by the deployment")
+    public void unknownTenantTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/api/product/1").header(TENANT, "cl"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Unknown tenant"));
+    }
+
+    @Test
+    @DisplayName("Must not start without the list of the tenants served")
+    public void missingTenantsTest() {
+        //given
+        TenancyProperties properties = new TenancyProperties();
+        properties.getTenants().clear();
+
+        //then
+        assertThatThrownBy(() -> new TenancyConfig(properties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("product.tenancy.tenants");
+    }
+
+    @Test
+    @DisplayName("Must search the products of one tenant through the indexes led by the tenant")
+    public void indexTest() {
+        //when
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT * FROM product WHERE tenant_id = 'br' AND brand = 'Ambev'", String.class);
+
+        //then
+        assertThat(plan).containsIgnoringCase("idx_product_tenant_brand");
+    }
+
+    private long create(String tenant, String name) throws Exception {
+        ProductDTO dto = ProductDTO.builder().name(name).description("Pilsen").brand("Ambev").price(4.5).build();
+        String created = mvc.perform(MockMvcRequestBuilders.post("/api/product")
+                .header(TENANT, tenant)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode product = objectMapper.readTree(created);
+        return product.get("id").asLong();
+    }
+}
@@ -0,0 +1,131 @@
+package com.inbev.productapi.config;
+
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.service.ProductService;
+import com.inbev.productapi.service.tracing.InMemorySpanExporter;
+import com.inbev.productapi.service.tracing.Span;
+import com.inbev.productapi.service.tracing.SpanExporter;
+import com.inbev.productapi.service.tracing.TraceContext;
+import com.inbev.productapi.service.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "product.tracing.enabled=true",
+        "product.tracing.sample-ratio=0",
+        "product.cache.enabled=false",
+        "product.admission.enabled=false"
+})
+@AutoConfigureMockMvc
+public class TracingTest {
+
+    static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    static final String PARENT_ID = "00f067aa0ba902b7";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ProductService service;
+
+    @Autowired
+    SpanExporter exporter;
+
+    Long id;
+
+    @BeforeEach
+    public void setUp(){
+        id = service.save(Product.builder().name("Traced " + System.nanoTime()).brand("Ambev").price(5.0).build())
+                .getId();
+        ((InMemorySpanExporter) exporter).clear();
+    }
+
+    @Test
+    @DisplayName("Must continue the incoming trace with nested handler, service and JDBC spans")
+    public void propagationTest() throws Exception {
+        //when
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/api/product/" + id)
+                .header("traceparent", "00-" + TRACE_ID + "-" + PARENT_ID + "-01")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //then
+        List<Span> spans = ((InMemorySpanExporter) exporter).getSpans();
+        Map<String, Span> byName = spans.stream()
+                .collect(Collectors.toMap(Span::getName, Function.identity(), (first, second) -> first));
+        Span server = byName.get("GET /api/product/{id}");
+        Span handler = byName.get("ProductController.get");
+        Span serviceSpan = byName.get("ProductServiceImp.getById");
+        Span jdbc = byName.get("JDBC select");
+
+        assertThat(spans).allMatch(span -> span.getTraceId().equals(TRACE_ID));
+        assertThat(server.getKind()).isEqualTo(Span.Kind.SERVER);
+        assertThat(server.getParentSpanId()).isEqualTo(PARENT_ID);
+        assertThat(server.getAttributes()).containsEntry("http.status_code", 200);
+        assertThat(handler.getParentSpanId()).isEqualTo(server.getSpanId());
+        assertThat(serviceSpan.getParentSpanId()).isEqualTo(handler.getSpanId());
+        assertThat(jdbc.getParentSpanId()).isEqualTo(serviceSpan.getSpanId());
+        assertThat((String) jdbc.getAttributes().get("db.statement")).contains("product");
+        assertThat(result.getResponse().getHeader("traceresponse"))
+                .isEqualTo("00-" + TRACE_ID + "-" + server.getSpanId() + "-01");
+    }
+
+    @Test
+    @DisplayName("Must record nothing for requests left out by sampling")
+    public void notSampledTest() throws Exception {
+        //when
+        mvc.perform(MockMvcRequestBuilders.get("/api/product/" + id)
+                .header("traceparent", "00-" + TRACE_ID + "-" + PARENT_ID + "-00"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("traceresponse"));
+        mvc.perform(MockMvcRequestBuilders.get("/api/product/" + id))
+                .andExpect(status().isOk());
+
+        //then
+        assertThat(((InMemorySpanExporter) exporter).getSpans()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Must sample the configured share of new traces and ignore malformed trace context")
+    public void samplingTest(){
+        //given
+        InMemorySpanExporter spans = new InMemorySpanExporter(10_000);
+        Tracer tracer = new Tracer(spans, 0.25);
+
+        //when
+        for (int i = 0; i < 4_000; i++) {
+            tracer.startServerSpan("GET", i % 2 == 0 ? null : "00-" + TRACE_ID + "-zz-01", null).close();
+        }
+
+        //then
+        assertThat(spans.getSpans().size()).isBetween(800, 1200);
+        assertThat(spans.getSpans()).noneMatch(span -> span.getTraceId().equals(TRACE_ID));
+        assertThat(TraceContext.parse("00-" + TRACE_ID + "-" + PARENT_ID + "-01"))
+                .isEqualTo(new TraceContext(TRACE_ID, PARENT_ID, true));
+        assertThat(TraceContext.parse("00-00000000000000000000000000000000-" + PARENT_ID + "-01")).isNull();
+        assertThat(TraceContext.parse("ff-" + TRACE_ID + "-" + PARENT_ID + "-01")).isNull();
+    }
+}
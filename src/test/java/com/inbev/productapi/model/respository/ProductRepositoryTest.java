@@ -1,5 +1,6 @@
 package com.inbev.productapi.model.respository;
 
+import com.inbev.productapi.config.tenancy.TenantContext;
 import com.inbev.productapi.model.entity.Product;
 import com.inbev.productapi.model.repository.ProductRepository;
 import org.junit.jupiter.api.DisplayName;
@@ -11,9 +12,11 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import javax.persistence.PersistenceException;
 import java.util.Optional;
 
 import static  org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -35,7 +38,7 @@ public class ProductRepositoryTest {
         entityManager.persist(product);
 
         //execution
-        boolean exists = repository.existsByName(name);
+        boolean exists = repository.existsByTenantIdAndName(TenantContext.DEFAULT_TENANT, name);
 
         //verification
         assertThat(exists).isTrue();
@@ -47,7 +50,7 @@ public class ProductRepositoryTest {
         String name = "corona";
 
         //execution
-        boolean exists = repository.existsByName(name);
+        boolean exists = repository.existsByTenantIdAndName(TenantContext.DEFAULT_TENANT, name);
 
         //verification
         assertThat(exists).isFalse();
@@ -71,7 +74,7 @@ public class ProductRepositoryTest {
         Product product = createNewProduct();
         entityManager.persist(product);
         //when
-        Optional<Product> foundProduct = repository.findByName(product.getName());
+        Optional<Product> foundProduct = repository.findByTenantIdAndName(TenantContext.DEFAULT_TENANT, product.getName());
 
         //then
         assertThat(foundProduct.isPresent()).isTrue();
@@ -106,6 +109,18 @@ public class ProductRepositoryTest {
         assertThat(deletedProduct).isNull();
 
     }
+    @Test
+    @DisplayName("Must reject a duplicated name at the database level")
+    public void duplicatedNameTest(){
+        //given
+        entityManager.persistAndFlush(createNewProduct());
+
+        //when
+        Throwable exception = catchThrowable(() -> entityManager.persistAndFlush(createNewProduct()));
+
+        //then
+        assertThat(exception).isInstanceOf(PersistenceException.class);
+    }
     private Product createNewProduct() {
 
         return Product.builder().name("corona").description("As aventuras").brand("123").price(100.0).build();
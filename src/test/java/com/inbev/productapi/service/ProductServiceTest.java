@@ -1,5 +1,6 @@
 package com.inbev.productapi.service;
 
+import com.inbev.productapi.config.tenancy.TenantContext;
 import com.inbev.productapi.exception.BusinessException;
 import com.inbev.productapi.model.entity.Product;
 import com.inbev.productapi.model.repository.ProductRepository;
@@ -44,7 +45,7 @@ public class ProductServiceTest {
     public void saveProductTest(){
         //scenario
         Product product = createValidProduct();
-        Mockito.when(respository.existsByName(Mockito.anyString())).thenReturn(false);
+        Mockito.when(respository.existsByTenantIdAndName(Mockito.anyString(), Mockito.anyString())).thenReturn(false);
         Mockito.when(respository.save(product) ).thenReturn(
                     Product.builder().id(11L)
                             .brand("123")
@@ -73,7 +74,7 @@ public class ProductServiceTest {
         long id = 1;
         Product product = createValidProduct();
         product.setId(id);
-        Mockito.when(respository.existsByName(Mockito.anyString())).thenReturn(true);
+        Mockito.when(respository.existsByTenantIdAndName(Mockito.anyString(), Mockito.anyString())).thenReturn(true);
 
         //then
        Throwable execption = Assertions.catchThrowable( () -> service.save(product));
@@ -128,7 +129,7 @@ public class ProductServiceTest {
         product.setName(name);
 
         //when
-        Mockito.when(respository.findByName(name)).thenReturn(Optional.of(product));
+        Mockito.when(respository.findByTenantIdAndName(TenantContext.DEFAULT_TENANT, name)).thenReturn(Optional.of(product));
         Optional<Product> foundProduct = service.getByName(name);
 
         //then
@@ -146,7 +147,7 @@ public class ProductServiceTest {
         String name = "corona";
 
         //when
-        Mockito.when(respository.findByName(name)).thenReturn(Optional.empty());
+        Mockito.when(respository.findByTenantIdAndName(TenantContext.DEFAULT_TENANT, name)).thenReturn(Optional.empty());
         Optional<Product> product = service.getByName(name);
 
         //then
@@ -223,7 +224,8 @@ public class ProductServiceTest {
         Mockito.verify(respository,Mockito.never()).save(product);
     }
     private Product createValidProduct() {
-        return Product.builder().brand("123").name("fulano").description("As aventuras").price(100.0).build();
+        return Product.builder().brand("123").name("fulano").description("As aventuras").price(100.0)
+                .tenantId(TenantContext.DEFAULT_TENANT).build();
     }
 }
 
@@ -0,0 +1,115 @@
+package com.inbev.productapi.service;
+
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.entity.ProductVariant;
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.model.repository.ProductVariantRepository;
+import com.inbev.productapi.service.impl.ProductServiceImp;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the JDBC statements of the variant queries, they must not grow with the number of products.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ProductVariantQueryTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    ProductRepository repository;
+
+    @Autowired
+    ProductVariantRepository variantRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    ProductService service;
+    Statistics statistics;
+
+    @BeforeEach
+    public void setUp(){
+        service = new ProductServiceImp(repository, variantRepository);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Must load a product with all its variants in one query")
+    public void getWithVariantsTest(){
+        //given
+        Long id = createProducts(1, 3);
+
+        //when
+        long statements = countStatements(() -> {
+            Optional<Product> product = service.getWithVariants(id);
+            assertThat(product.get().getVariants()).extracting(ProductVariant::getPackSize).containsExactly(1, 6, 12);
+        });
+
+        //then
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must load a page of products with their variants in the same number of queries whatever its size")
+    public void findWithVariantsTest(){
+        //given
+        createProducts(40, 3);
+
+        //when
+        long smallPage = countStatements(() -> assertVariantsLoaded(service.findWithVariants(new Product(), PageRequest.of(0, 5)), 5));
+        long largePage = countStatements(() -> assertVariantsLoaded(service.findWithVariants(new Product(), PageRequest.of(0, 30)), 30));
+
+        //then
+        // the page, its count and the variants of the page
+        assertThat(smallPage).isEqualTo(3);
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    private void assertVariantsLoaded(Page<Product> page, int size) {
+        assertThat(page.getContent()).hasSize(size);
+        page.forEach(product -> assertThat(product.getVariants()).hasSize(3));
+    }
+
+    private long countStatements(Runnable work) {
+        entityManager.clear();
+        statistics.clear();
+        work.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Long createProducts(int products, int variantsEach) {
+        int[] packSizes = {12, 1, 6};
+        Long last = null;
+        for (int i = 0; i < products; i++) {
+            Product product = entityManager.persist(Product.builder()
+                    .name("corona " + i).description("lager").brand("ambev").price(5.0).build());
+            for (int v = 0; v < variantsEach; v++) {
+                entityManager.persist(ProductVariant.builder().product(product).sku("COR-" + i + "-" + v)
+                        .packSize(packSizes[v % packSizes.length]).price(5.0 * packSizes[v % packSizes.length]).build());
+            }
+            last = product.getId();
+        }
+        entityManager.flush();
+        return last;
+    }
+}
@@ -0,0 +1,155 @@
+package com.inbev.productapi.service;
+
+import com.inbev.productapi.config.sharding.ProductShards;
+import com.inbev.productapi.config.sharding.ShardDirectory;
+import com.inbev.productapi.exception.BusinessException;
+import com.inbev.productapi.model.entity.Product;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "product.sharding.enabled=true",
+        "product.cache.enabled=false",
+        "product.sharding.id-range-size=1000",
+        "product.sharding.shards[0].jdbc-url=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1",
+        "product.sharding.shards[1].jdbc-url=jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1",
+        "product.sharding.shards[2].jdbc-url=jdbc:h2:mem:shard-2;DB_CLOSE_DELAY=-1"
+})
+public class ShardedProductServiceTest {
+
+    @Autowired
+    ProductService service;
+
+    @Autowired
+    ProductShards shards;
+
+    @Autowired
+    ShardDirectory directory;
+
+    @AfterEach
+    public void tearDown(){
+        for (int shard = 0; shard < shards.count(); shard++) {
+            new JdbcTemplate(shards.get(shard)).update("DELETE FROM product");
+        }
+        directory.clear();
+    }
+
+    @Test
+    @DisplayName("Must save a product on the home shard of its name, inside the id range of that shard")
+    public void saveOnHomeShardTest(){
+        //given
+        Product product = createProduct("corona");
+        int homeShard = shards.homeShardForName("corona");
+
+        //when
+        Product saved = service.save(product);
+
+        //then
+        assertThat(shards.shardForId(saved.getId())).isEqualTo(homeShard);
+        assertThat(countOn(homeShard)).isEqualTo(1);
+        assertThat(service.getById(saved.getId())).isPresent();
+    }
+
+    @Test
+    @DisplayName("Must find a renamed product by its new name on any shard")
+    public void findRenamedProductByNameTest(){
+        //given
+        Product saved = service.save(createProduct("corona"));
+        saved.setName(nameWithDifferentHome("corona"));
+        service.update(saved);
+        directory.clear();
+
+        //when
+        Optional<Product> found = service.getByName(saved.getName());
+
+        //then
+        assertThat(found).isPresent();
+        assertThat(found.get().getId()).isEqualTo(saved.getId());
+    }
+
+    @Test
+    @DisplayName("Must reject a name already registered on another shard")
+    public void duplicatedNameAcrossShardsTest(){
+        //given
+        Product saved = service.save(createProduct("corona"));
+        String renamed = nameWithDifferentHome("corona");
+        saved.setName(renamed);
+        service.update(saved);
+        directory.clear();
+
+        //when
+        Throwable exception = Assertions.catchThrowable(() -> service.save(createProduct(renamed)));
+
+        //then
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Name already registered");
+    }
+
+    @Test
+    @DisplayName("Must merge the pages of every shard")
+    public void findAcrossShardsTest(){
+        //given
+        for (String name : new String[]{"a", "b", "c", "d", "e", "f", "g"}) {
+            service.save(createProduct("beer " + name));
+        }
+
+        //when
+        Page<Product> page = service.find(new Product(), PageRequest.of(1, 3, Sort.by("name")));
+
+        //then
+        assertThat(page.getTotalElements()).isEqualTo(7);
+        assertThat(page.getContent().stream().map(Product::getName).collect(Collectors.toList()))
+                .containsExactly("beer d", "beer e", "beer f");
+    }
+
+    @Test
+    @DisplayName("Must get products of several shards at once, in the requested order")
+    public void getByIdsAcrossShardsTest(){
+        //given
+        Product first = service.save(createProduct("corona"));
+        Product second = service.save(createProduct(nameWithDifferentHome("corona")));
+
+        //when
+        List<Product> products = service.getByIds(Arrays.asList(second.getId(), first.getId(), 999_999L));
+
+        //then
+        assertThat(products).extracting(Product::getId).containsExactly(second.getId(), first.getId());
+    }
+
+    private long countOn(int shard) {
+        return new JdbcTemplate(shards.get(shard)).queryForObject("SELECT COUNT(*) FROM product", Long.class);
+    }
+
+    private String nameWithDifferentHome(String name) {
+        int home = shards.homeShardForName(name);
+        for (int i = 0; ; i++) {
+            String candidate = name + " " + i;
+            if (shards.homeShardForName(candidate) != home) {
+                return candidate;
+            }
+        }
+    }
+
+    private Product createProduct(String name) {
+        return Product.builder().name(name).description("beer").brand("ambev").price(10.0).build();
+    }
+}
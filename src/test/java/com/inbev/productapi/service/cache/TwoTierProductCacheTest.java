@@ -0,0 +1,239 @@
+package com.inbev.productapi.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.entity.ProductVariant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TwoTierProductCacheTest {
+
+    SharedCacheTier sharedTier;
+    CacheInvalidationBus bus;
+    ProductCache node;
+    ProductCache otherNode;
+
+    Map<Long, Product> database;
+    AtomicInteger queries;
+
+    @BeforeEach
+    public void setUp(){
+        sharedTier = new InMemorySharedCacheTier(100, Duration.ofMinutes(1));
+        bus = new InProcessInvalidationBus();
+        node = createNode();
+        otherNode = createNode();
+        database = new HashMap<>();
+        queries = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Must serve a product from the near cache after the first read")
+    public void nearCacheHitTest(){
+        //given
+        database.put(1L, createProduct(1L, "corona"));
+
+        //when
+        node.getById(1L, this::findById);
+        Optional<Product> product = node.getById(1L, this::findById);
+
+        //then
+        assertThat(product).isPresent();
+        assertThat(queries.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must not keep the session bound variants of a loaded product")
+    public void variantsNotCachedTest(){
+        //given
+        Product loaded = createProduct(1L, "corona");
+        loaded.setVariants(new ArrayList<>(Collections.singletonList(ProductVariant.builder().sku("corona-6").build())));
+        database.put(1L, loaded);
+
+        //when
+        node.getById(1L, this::findById);
+        Optional<Product> product = node.getById(1L, this::findById);
+
+        //then
+        assertThat(product).isPresent();
+        assertThat(product.get().getVariants()).isNull();
+    }
+
+    @Test
+    @DisplayName("Must serve a product cached by another instance from the shared tier")
+    public void sharedTierHitTest(){
+        //given
+        database.put(1L, createProduct(1L, "corona"));
+        node.getById(1L, this::findById);
+
+        //when
+        Optional<Product> product = otherNode.getByName("corona", this::findByName, this::findById);
+
+        //then
+        assertThat(product.map(Product::getId)).contains(1L);
+        assertThat(queries.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must drop the near entries of every instance when a product changes")
+    public void invalidationTest(){
+        //given
+        database.put(1L, createProduct(1L, "corona"));
+        node.getById(1L, this::findById);
+        otherNode.getById(1L, this::findById);
+
+        //when
+        Product updated = createProduct(1L, "corona extra");
+        database.put(1L, updated);
+        node.evict(updated);
+        Optional<Product> product = otherNode.getById(1L, this::findById);
+
+        //then
+        assertThat(product.map(Product::getName)).contains("corona extra");
+    }
+
+    @Test
+    @DisplayName("Must not cache a product loaded before a concurrent update evicted it")
+    public void loadRacingUpdateTest(){
+        //given
+        database.put(1L, createProduct(1L, "corona"));
+        Product updated = createProduct(1L, "corona extra");
+
+        //when
+        node.getById(1L, id -> {
+            Optional<Product> stale = findById(id);
+            database.put(1L, updated);
+            otherNode.evict(updated);
+            return stale;
+        });
+        Optional<Product> product = node.getById(1L, this::findById);
+
+        //then
+        assertThat(product.map(Product::getName)).contains("corona extra");
+    }
+
+    @Test
+    @DisplayName("Must not replace a cached product by an older version")
+    public void olderVersionTest(){
+        //given
+        database.put(1L, createProduct(1L, "corona extra").toBuilder().version(2L).build());
+        node.getById(1L, this::findById);
+
+        //when
+        node.getAllById(Arrays.asList(1L, 2L), ids -> Collections.singletonList(
+                createProduct(1L, "corona").toBuilder().version(1L).build()));
+        Optional<Product> product = node.getById(1L, this::findById);
+
+        //then
+        assertThat(product.map(Product::getName)).contains("corona extra");
+    }
+
+    @Test
+    @DisplayName("Must serve a product put in the cache before it is written")
+    public void putTest(){
+        //given
+        database.put(1L, createProduct(1L, "corona"));
+        node.getById(1L, this::findById);
+
+        //when
+        node.put(createProduct(1L, "corona extra"));
+        Optional<Product> product = otherNode.getById(1L, this::findById);
+
+        //then
+        assertThat(product.map(Product::getName)).contains("corona extra");
+        assertThat(queries.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must not find a renamed product by its old name")
+    public void renamedProductTest(){
+        //given
+        database.put(1L, createProduct(1L, "corona"));
+        node.getByName("corona", this::findByName, this::findById);
+
+        //when
+        Product renamed = createProduct(1L, "corona extra");
+        database.put(1L, renamed);
+        otherNode.evict(renamed);
+        Optional<Product> product = node.getByName("corona", this::findByName, this::findById);
+
+        //then
+        assertThat(product).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Must not let callers modify the cached product")
+    public void cachedCopyTest(){
+        //given
+        database.put(1L, createProduct(1L, "corona"));
+        node.getById(1L, this::findById).get().setName("changed");
+
+        //when
+        Optional<Product> product = node.getById(1L, this::findById);
+
+        //then
+        assertThat(product.map(Product::getName)).contains("corona");
+    }
+
+    @Test
+    @DisplayName("Must load every missing product of a batch with a single call")
+    public void batchTest(){
+        //given
+        database.put(1L, createProduct(1L, "corona"));
+        database.put(2L, createProduct(2L, "budweiser"));
+        database.put(3L, createProduct(3L, "stella"));
+        node.getById(2L, this::findById);
+
+        //when
+        List<Product> products = node.getAllById(Arrays.asList(3L, 2L, 1L, 4L), this::findAllById);
+
+        //then
+        assertThat(products).extracting(Product::getId).containsExactly(3L, 2L, 1L);
+        assertThat(queries.get()).isEqualTo(2);
+    }
+
+    private ProductCache createNode() {
+        return new TwoTierProductCache(sharedTier, bus, new ObjectMapper(), 100, 4, Duration.ofMinutes(1));
+    }
+
+    private Optional<Product> findById(Long id) {
+        queries.incrementAndGet();
+        return Optional.ofNullable(database.get(id)).map(product -> product.toBuilder().build());
+    }
+
+    private List<Product> findAllById(Collection<Long> ids) {
+        queries.incrementAndGet();
+        return ids.stream()
+                .map(database::get)
+                .filter(Objects::nonNull)
+                .map(product -> product.toBuilder().build())
+                .collect(Collectors.toList());
+    }
+
+    private Optional<Product> findByName(String name) {
+        queries.incrementAndGet();
+        return database.values().stream()
+                .filter(product -> product.getName().equals(name))
+                .findFirst()
+                .map(product -> product.toBuilder().build());
+    }
+
+    private Product createProduct(Long id, String name) {
+        return Product.builder().id(id).name(name).description("beer").brand("ambev").price(10.0).build();
+    }
+}
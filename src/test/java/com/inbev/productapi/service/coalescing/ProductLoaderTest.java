@@ -0,0 +1,125 @@
+package com.inbev.productapi.service.coalescing;
+
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class ProductLoaderTest {
+
+    @MockBean
+    ProductRepository repository;
+
+    @Test
+    @DisplayName("Must share one query between concurrent loads of the same id")
+    public void singleFlightTest() throws Exception{
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(repository.findById(1L)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(createProduct(1L));
+        });
+        ProductLoader loader = createLoader(CoalescingProperties.Mode.SINGLE_FLIGHT);
+
+        //when
+        List<Optional<Product>> results = runConcurrently(8, i -> loader.findById(1L), release);
+
+        //then
+        Mockito.verify(repository, Mockito.times(1)).findById(1L);
+        assertThat(results).allMatch(Optional::isPresent);
+        assertThat(results.get(0).get()).isNotSameAs(results.get(1).get());
+    }
+
+    @Test
+    @DisplayName("Must merge concurrent loads of distinct ids into one query")
+    @SuppressWarnings("unchecked")
+    public void batchTest() throws Exception{
+        //given
+        Mockito.when(repository.findAllById(Mockito.anyIterable())).thenAnswer(invocation ->
+                ((Collection<Long>) invocation.getArgument(0)).stream()
+                        .map(ProductLoaderTest::createProduct)
+                        .collect(Collectors.toList()));
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setMode(CoalescingProperties.Mode.BATCH);
+        properties.setBatchWindow(Duration.ofSeconds(5));
+        properties.setMaxBatchSize(8);
+        ProductLoader loader = new ProductLoader(repository, properties);
+
+        //when
+        List<Optional<Product>> results = runConcurrently(8, i -> loader.findById((long) i), new CountDownLatch(0));
+
+        //then
+        Mockito.verify(repository, Mockito.times(1)).findAllById(Mockito.anyIterable());
+        assertThat(results).extracting(result -> result.get().getId())
+                .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L);
+    }
+
+    @Test
+    @DisplayName("Must query the database for every load when coalescing is off")
+    public void directTest(){
+        //given
+        Mockito.when(repository.findByTenantIdAndName(TenantContext.DEFAULT_TENANT, "corona")).thenReturn(Optional.of(createProduct(1L)));
+        ProductLoader loader = createLoader(CoalescingProperties.Mode.NONE);
+
+        //when
+        loader.findByName("corona");
+        loader.findByName("corona");
+
+        //then
+        Mockito.verify(repository, Mockito.times(2)).findByTenantIdAndName(TenantContext.DEFAULT_TENANT, "corona");
+    }
+
+    private ProductLoader createLoader(CoalescingProperties.Mode mode) {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setMode(mode);
+        return new ProductLoader(repository, properties);
+    }
+
+    private static <T> List<T> runConcurrently(int threads, IntFunction<T> task,
+                                               CountDownLatch release) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> task.apply(index)));
+            }
+            // gives every thread the time to join the load before the repository answers
+            Thread.sleep(200);
+            release.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Product createProduct(Long id) {
+        return Product.builder().id(id).name("corona " + id).description("beer").brand("ambev").price(10.0).build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.inbev.productapi.service.consistency;
+
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductConsistencyCheckerTest {
+
+    @Autowired
+    ProductRepository repository;
+
+    List<Product> products;
+
+    @BeforeEach
+    public void setUp(){
+        repository.deleteAll();
+        products = repository.saveAll(IntStream.rangeClosed(1, 25)
+                .mapToObj(i -> Product.builder().name("Product " + i).brand("Ambev").price(i).build())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Must report and repair the products a view disagrees on")
+    public void repairTest() throws Exception {
+        //given
+        MapView view = new MapView();
+        products.forEach(product -> view.held.put(product.getId(), product.toBuilder().build()));
+        Product stale = products.get(3);
+        view.held.put(stale.getId(), stale.toBuilder().name("Old name").build());
+        Product missing = products.get(17);
+        view.held.remove(missing.getId());
+        ProductConsistencyChecker checker = checker(view, 2, 4);
+
+        //when
+        ConsistencyCheck report = run(checker, false);
+
+        //then
+        assertThat(report.getStatus()).isEqualTo(ConsistencyCheck.Status.COMPLETED);
+        assertThat(report.getRowsScanned()).isEqualTo(25);
+        assertThat(report.getProgress()).isEqualTo(1.0);
+        assertThat(report.getDivergences()).containsExactlyInAnyOrder(
+                new Divergence("map", stale.getId(), Divergence.Kind.STALE),
+                new Divergence("map", missing.getId(), Divergence.Kind.MISSING));
+        assertThat(report.getRepaired()).isZero();
+        assertThat(view.held.get(stale.getId()).getName()).isEqualTo("Old name");
+
+        //when
+        ConsistencyCheck repaired = run(checker, true);
+
+        //then
+        assertThat(repaired.getRepaired()).isEqualTo(2);
+        assertThat(view.bulkRepairs).isEqualTo(1);
+        assertThat(run(checker, false).getDivergenceCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Must compute the same catalog checksum however the scan is split")
+    public void checksumTest() throws Exception {
+        //given
+        MapView view = new MapView();
+
+        //when
+        ConsistencyCheck sequential = run(checker(view, 1, 100), false);
+        ConsistencyCheck parallel = run(checker(view, 4, 4), false);
+
+        //then
+        assertThat(sequential.getChunks()).isEqualTo(1);
+        assertThat(parallel.getChunks()).isGreaterThan(6);
+        assertThat(parallel.getChecksum()).isEqualTo(sequential.getChecksum());
+        assertThat(parallel.getRowsScanned()).isEqualTo(25);
+    }
+
+    @Test
+    @DisplayName("Must only scan and report the products of the tenant of the check")
+    public void tenantTest() throws Exception {
+        //given
+        repository.save(Product.builder().name("Product 1").brand("Ambev").price(1).tenantId("br").build());
+        ProductConsistencyChecker checker = checker(new MapView(), 2, 4);
+
+        //when
+        ConsistencyCheck check = run(checker, false);
+
+        //then
+        assertThat(check.getTenantId()).isEqualTo(TenantContext.DEFAULT_TENANT);
+        assertThat(check.getTotalRows()).isEqualTo(25);
+        assertThat(check.getRowsScanned()).isEqualTo(25);
+        assertThat(checker.get(TenantContext.DEFAULT_TENANT, check.getId())).contains(check);
+        assertThat(checker.get("br", check.getId())).isEmpty();
+    }
+
+    private ProductConsistencyChecker checker(MapView view, int parallelism, int chunkSize) {
+        ConsistencyCheckProperties properties = new ConsistencyCheckProperties();
+        properties.setChunkSize(chunkSize);
+        properties.setParallelism(parallelism);
+        properties.setMaxRowsPerSecond(0);
+        return new ProductConsistencyChecker(repository, Arrays.asList(view), properties, 0,
+                new SimpleMeterRegistry());
+    }
+
+    private static ConsistencyCheck run(ProductConsistencyChecker checker, boolean repair) throws Exception {
+        ConsistencyCheck check = checker.start(TenantContext.DEFAULT_TENANT, repair).get();
+        assertThat(check.await(Duration.ofSeconds(30))).isTrue();
+        return check;
+    }
+
+    static class MapView implements DerivedProductView {
+
+        final Map<Long, Product> held = new ConcurrentHashMap<>();
+        int bulkRepairs;
+
+        @Override
+        public String getName() {
+            return "map";
+        }
+
+        @Override
+        public boolean isComplete() {
+            return !held.isEmpty();
+        }
+
+        @Override
+        public Optional<Product> peek(Long id) {
+            return Optional.ofNullable(held.get(id));
+        }
+
+        @Override
+        public void repair(Product current) {
+            held.put(current.getId(), current.toBuilder().build());
+        }
+
+        @Override
+        public void afterRepair() {
+            bulkRepairs++;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.inbev.productapi.service.snapshot;
+
+import com.inbev.productapi.config.tenancy.TenantContext;
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class ProductSnapshotTest {
+
+    @MockBean
+    ProductRepository repository;
+
+    @MockBean
+    ProductService delegate;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Must find every product of the catalog by id and name")
+    public void lookupTest() throws Exception {
+        //given
+        List<Product> catalog = Arrays.asList(
+                product(3L, "Aa", "Ambev"),
+                product(5L, "BB", null),
+                product(8L, null, "Ambev"),
+                product(13L, "Cerveja São Paulo", "Ambev"));
+        givenCatalog(catalog);
+
+        //when
+        ProductSnapshot snapshot = ProductSnapshot.open(new ProductSnapshotWriter(repository, 2).write(directory));
+
+        //then
+        assertThat(snapshot.size()).isEqualTo(4);
+        for (Product product : catalog) {
+            assertThat(snapshot.getById(product.getId())).contains(product);
+        }
+        // "Aa" and "BB" share their hash code
+        assertThat(snapshot.getByName(TenantContext.DEFAULT_TENANT, "BB")).contains(catalog.get(1));
+        assertThat(snapshot.getByName(TenantContext.DEFAULT_TENANT, "Aa")).contains(catalog.get(0));
+        assertThat(snapshot.getByName(TenantContext.DEFAULT_TENANT, "Cerveja São Paulo")).contains(catalog.get(3));
+        assertThat(snapshot.getById(4L)).isEmpty();
+        assertThat(snapshot.getByName(TenantContext.DEFAULT_TENANT, "Ab")).isEmpty();
+        assertThat(snapshot.getByName(TenantContext.DEFAULT_TENANT, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Must keep a released snapshot readable until its last reader is done, then delete it")
+    public void releaseTest() throws Exception {
+        //given
+        givenCatalog(Arrays.asList(product(1L, "Skol", "Ambev")));
+        ProductSnapshot snapshot = ProductSnapshot.open(new ProductSnapshotWriter(repository, 10).write(directory));
+        assertThat(snapshot.acquire()).isTrue();
+
+        //when
+        snapshot.release();
+
+        //then
+        assertThat(snapshot.getById(1L)).isPresent();
+        assertThat(Files.exists(snapshot.getFile())).isTrue();
+        snapshot.release();
+        assertThat(Files.exists(snapshot.getFile())).isFalse();
+        assertThat(snapshot.acquire()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Must swap in the current catalog on refresh and delete the previous snapshot")
+    public void refreshTest() throws Exception {
+        //given
+        List<Product> catalog = new ArrayList<>(Arrays.asList(product(1L, "Skol", "Ambev")));
+        givenCatalog(catalog);
+        SnapshotProperties properties = new SnapshotProperties();
+        properties.setDirectory(directory.toString());
+        Files.createFile(directory.resolve("products-1.snap"));
+
+        try (SnapshotProductService service = new SnapshotProductService(delegate,
+                new ProductSnapshotWriter(repository, 10), properties, new SimpleMeterRegistry())) {
+            Path first = service.getSnapshot().getFile();
+            assertThat(service.getById(1L)).isPresent();
+            assertThat(service.getById(2L)).isEmpty();
+
+            //when
+            catalog.set(0, product(1L, "Skol Beats", "Ambev"));
+            catalog.add(product(2L, "Brahma", "Ambev"));
+            service.refresh();
+
+            //then
+            assertThat(service.getById(1L).map(Product::getName)).contains("Skol Beats");
+            assertThat(service.getByName("Brahma").map(Product::getId)).contains(2L);
+            assertThat(service.getByIds(Arrays.asList(2L, 3L, 1L)))
+                    .extracting(Product::getId).containsExactly(2L, 1L);
+            assertThat(Files.list(directory).collect(Collectors.toList()))
+                    .containsExactly(service.getSnapshot().getFile())
+                    .doesNotContain(first);
+        }
+        Mockito.verifyNoInteractions(delegate);
+    }
+
+    private void givenCatalog(List<Product> catalog) {
+        BDDMockito.given(repository.findByIdGreaterThan(Mockito.anyLong(), Mockito.any(Pageable.class)))
+                .willAnswer(invocation -> {
+                    long after = invocation.getArgument(0);
+                    Pageable page = invocation.getArgument(1);
+                    return catalog.stream()
+                            .filter(product -> product.getId() > after)
+                            .limit(page.getPageSize())
+                            .collect(Collectors.toList());
+                });
+    }
+
+    private static Product product(Long id, String name, String brand) {
+        return Product.builder().id(id).name(name).brand(brand).description("Beer " + id).price(id * 1.5)
+                .version(id).tenantId(TenantContext.DEFAULT_TENANT).build();
+    }
+}
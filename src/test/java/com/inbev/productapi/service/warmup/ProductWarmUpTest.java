@@ -0,0 +1,94 @@
+package com.inbev.productapi.service.warmup;
+
+import com.inbev.productapi.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class ProductWarmUpTest {
+
+    @MockBean
+    ProductService service;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Must keep the most requested products across restarts")
+    public void recordedStatsTest(){
+        //given
+        Path file = directory.resolve("hot-products.txt");
+        ProductAccessStats stats = new ProductAccessStats(100, 2, file);
+        for (long id : new long[]{1, 2, 2, 3, 3, 3}) {
+            stats.record(id);
+        }
+
+        //when
+        stats.close();
+
+        //then
+        assertThat(stats.top(3)).containsExactly(3L, 2L, 1L);
+        assertThat(new ProductAccessStats(100, 2, file).recorded()).containsExactly(3L, 2L);
+    }
+
+    @Test
+    @DisplayName("Must preload the configured and recorded products, then report ready and its duration")
+    public void warmUpTest(){
+        //given
+        Path file = directory.resolve("hot-products.txt");
+        ProductAccessStats previousRun = new ProductAccessStats(100, 10, file);
+        previousRun.record(7L);
+        previousRun.record(1L);
+        previousRun.close();
+
+        WarmUpProperties properties = new WarmUpProperties();
+        properties.setProductIds(Arrays.asList(1L, 2L));
+        properties.setTopN(3);
+        ProductAccessStats stats = new ProductAccessStats(100, 10, file);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProductWarmUp warmUp = new ProductWarmUp(service, stats, properties, registry);
+        stats.record(5L);
+
+        //when
+        assertThat(warmUp.isComplete()).isFalse();
+        warmUp.run(-1);
+
+        //then
+        Mockito.verify(service).getByIds(Arrays.asList(1L, 2L, 7L));
+        assertThat(warmUp.isComplete()).isTrue();
+        assertThat(stats.top(10)).isEmpty();
+        assertThat(registry.get("product.warmup.duration").timer().count()).isEqualTo(1);
+        assertThat(registry.get("product.warmup.duration").timer().totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Must report ready even when the warm-up fails")
+    public void failedWarmUpTest(){
+        //given
+        WarmUpProperties properties = new WarmUpProperties();
+        properties.setProductIds(Arrays.asList(1L));
+        Mockito.when(service.getByIds(Mockito.anyCollection())).thenThrow(new IllegalStateException("database down"));
+        ProductWarmUp warmUp = new ProductWarmUp(service, new ProductAccessStats(100, 10, null), properties,
+                new SimpleMeterRegistry());
+
+        //when
+        warmUp.run(-1);
+
+        //then
+        assertThat(warmUp.isComplete()).isTrue();
+    }
+}
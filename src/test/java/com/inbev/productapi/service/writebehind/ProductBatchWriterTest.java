@@ -0,0 +1,57 @@
+package com.inbev.productapi.service.writebehind;
+
+import com.inbev.productapi.model.entity.Product;
+import com.inbev.productapi.model.repository.ProductRepository;
+import com.inbev.productapi.service.cache.ProductCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class ProductBatchWriterTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    ProductRepository repository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Must write queued updates over the current rows, ignoring deleted products")
+    public void writeTest(){
+        //given
+        Product product = entityManager.persistFlushFind(
+                Product.builder().name("corona").description("lager").brand("ambev").price(10.0).build());
+        Long version = product.getVersion();
+        Product stale = product.toBuilder().version(version - 1).price(12.5).name("corona extra").build();
+        Product deleted = Product.builder().id(product.getId() + 1000).name("gone").price(1.0).build();
+        ProductBatchWriter writer = new ProductBatchWriter(repository, ProductCache.none(), transactionManager);
+
+        //when
+        writer.write(Arrays.asList(stale, deleted));
+        entityManager.flush();
+        entityManager.clear();
+
+        //then
+        Product written = entityManager.find(Product.class, product.getId());
+        assertThat(written.getName()).isEqualTo("corona extra");
+        assertThat(written.getPrice()).isEqualTo(12.5);
+        assertThat(written.getVersion()).isEqualTo(version + 1);
+        assertThat(repository.existsById(deleted.getId())).isFalse();
+    }
+}
@@ -0,0 +1,149 @@
+package com.inbev.productapi.service.writebehind;
+
+import com.inbev.productapi.exception.ServiceOverloadedException;
+import com.inbev.productapi.model.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class WriteBehindQueueTest {
+
+    @MockBean
+    ProductBatchWriter writer;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    WriteBehindQueue queue;
+
+    @AfterEach
+    public void tearDown() throws Exception{
+        queue.close();
+    }
+
+    @Test
+    @DisplayName("Must keep only the last update of a product and write in batches")
+    public void coalesceTest(){
+        //given
+        WriteBehindProperties properties = createProperties();
+        properties.setMaxBatchSize(2);
+        queue = new WriteBehindQueue(writer, properties, registry);
+        queue.submit(createProduct(1L, 10.0));
+        queue.submit(createProduct(2L, 20.0));
+        queue.submit(createProduct(1L, 11.0));
+        queue.submit(createProduct(3L, 30.0));
+
+        //when
+        assertThat(registry.get("product.write-behind.queue.depth").gauge().value()).isEqualTo(3);
+        queue.flush();
+
+        //then
+        List<List<Product>> batches = writtenBatches(2);
+        assertThat(batches.get(0)).extracting(Product::getId).containsExactly(1L, 2L);
+        assertThat(batches.get(0).get(0).getPrice()).isEqualTo(11.0);
+        assertThat(batches.get(1)).extracting(Product::getId).containsExactly(3L);
+        assertThat(queue.size()).isZero();
+        assertThat(registry.get("product.write-behind.coalesced").counter().count()).isEqualTo(1);
+        assertThat(registry.get("product.write-behind.flush.latency").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Must push back on new products once the queue is full")
+    public void backpressureTest(){
+        //given
+        WriteBehindProperties properties = createProperties();
+        properties.setCapacity(1);
+        properties.setOfferTimeout(Duration.ofMillis(10));
+        queue = new WriteBehindQueue(writer, properties, registry);
+        queue.submit(createProduct(1L, 10.0));
+
+        //when
+        queue.submit(createProduct(1L, 12.0));
+        Throwable exception = catchThrowable(() -> queue.submit(createProduct(2L, 20.0)));
+
+        //then
+        assertThat(exception).isInstanceOf(ServiceOverloadedException.class);
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must write the updates of a failed batch one by one")
+    public void failedBatchTest(){
+        //given
+        queue = new WriteBehindQueue(writer, createProperties(), registry);
+        List<Product> dropped = new ArrayList<>();
+        queue.onDropped(dropped::add);
+        Mockito.doAnswer(invocation -> {
+            Collection<Product> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(product -> product.getId() == 2L)) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return null;
+        }).when(writer).write(Mockito.anyCollection());
+        queue.submit(createProduct(1L, 10.0));
+        queue.submit(createProduct(2L, 20.0));
+
+        //when
+        queue.flush();
+
+        //then
+        Mockito.verify(writer, Mockito.times(3)).write(Mockito.anyCollection());
+        assertThat(queue.size()).isEqualTo(1);
+        queue.flush();
+        queue.flush();
+        assertThat(queue.size()).isZero();
+        assertThat(registry.get("product.write-behind.dropped").counter().count()).isEqualTo(1);
+        assertThat(dropped).extracting(Product::getId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Must write the queued updates when closed")
+    public void closeTest() throws Exception{
+        //given
+        queue = new WriteBehindQueue(writer, createProperties(), registry);
+        queue.submit(createProduct(1L, 10.0));
+
+        //when
+        queue.close();
+
+        //then
+        assertThat(writtenBatches(1).get(0)).extracting(Product::getId).containsExactly(1L);
+        assertThat(catchThrowable(() -> queue.submit(createProduct(2L, 20.0))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Product>> writtenBatches(int count) {
+        ArgumentCaptor<Collection<Product>> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(writer, Mockito.times(count)).write(captor.capture());
+        List<List<Product>> batches = new ArrayList<>();
+        captor.getAllValues().forEach(batch -> batches.add(new ArrayList<>(batch)));
+        return batches;
+    }
+
+    private WriteBehindProperties createProperties() {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        // flushes are triggered by the tests
+        properties.setFlushInterval(Duration.ofHours(1));
+        return properties;
+    }
+
+    private Product createProduct(Long id, double price) {
+        return Product.builder().id(id).version(1L).name("corona " + id).brand("ambev").price(price).build();
+    }
+}